@@ -0,0 +1,87 @@
+package com.skywalker.backend.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * CBOR ({@code application/cbor}) and Smile ({@code application/x-jackson-smile}) next to JSON,
+ * for every endpoint and with the same DTOs. Clients opt in through Accept and Content-Type;
+ * JSON stays the default. The binary mappers come from the same builder as the JSON one, but
+ * write dates as epoch-day integers, overriding the yyyy-MM-dd patterns on the DTOs.
+ */
+@Configuration
+public class BinaryFormatConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(binaryMapper(builder.factory(new CBORFactory())));
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(binaryMapper(builder.factory(new SmileFactory())));
+    }
+
+    // Registered after the builder's modules, so it takes precedence over JavaTimeModule's LocalDate handling
+    private static ObjectMapper binaryMapper(Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper mapper = builder.build();
+        SimpleModule epochDays = new SimpleModule("EpochDayDates");
+        epochDays.addSerializer(LocalDate.class, new EpochDaySerializer());
+        epochDays.addDeserializer(LocalDate.class, new EpochDayDeserializer());
+        return mapper.registerModule(epochDays);
+    }
+
+    static class EpochDaySerializer extends StdScalarSerializer<LocalDate> {
+
+        EpochDaySerializer() {
+            super(LocalDate.class);
+        }
+
+        @Override
+        public void serialize(LocalDate value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeNumber(value.toEpochDay());
+        }
+    }
+
+    // Also accepts yyyy-MM-dd strings, so a client can switch encodings before switching date handling
+    static class EpochDayDeserializer extends StdScalarDeserializer<LocalDate> {
+
+        EpochDayDeserializer() {
+            super(LocalDate.class);
+        }
+
+        @Override
+        public LocalDate deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.hasToken(JsonToken.VALUE_NUMBER_INT)) {
+                return LocalDate.ofEpochDay(p.getLongValue());
+            }
+            if (p.hasToken(JsonToken.VALUE_STRING)) {
+                try {
+                    return LocalDate.parse(p.getText().trim());
+                } catch (DateTimeParseException e) {
+                    return (LocalDate) ctxt.handleWeirdStringValue(LocalDate.class, p.getText(),
+                            "expected an epoch day or yyyy-MM-dd");
+                }
+            }
+            return (LocalDate) ctxt.handleUnexpectedToken(LocalDate.class, p);
+        }
+    }
+}
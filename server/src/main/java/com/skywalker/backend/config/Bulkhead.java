@@ -0,0 +1,51 @@
+package com.skywalker.backend.config;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps how many callers may be inside a section at once. With virtual threads there is no
+ * thread pool left to do this implicitly, so scarce resources (database connections, CPU-bound
+ * hashing, outbound calls) are guarded explicitly. Callers wait up to {@code maxWait} for a
+ * permit and are rejected after that instead of queueing without bound.
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final int limit;
+    private final Duration maxWait;
+    private final Semaphore permits;
+
+    public Bulkhead(String name, int limit, Duration maxWait) {
+        this.name = name;
+        this.limit = limit;
+        this.maxWait = maxWait;
+        this.permits = new Semaphore(limit, true);
+    }
+
+    public boolean tryAcquire() {
+        try {
+            return permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return limit - permits.availablePermits();
+    }
+}
@@ -0,0 +1,50 @@
+package com.skywalker.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Admits at most the bulkhead's limit of API requests at a time and answers the rest with
+ * 503 and Retry-After, so a burst of virtual threads queues here rather than on the
+ * connection pool where every waiter would hold a request open until it times out.
+ */
+public class BulkheadFilter extends OncePerRequestFilter {
+
+    private final Bulkhead bulkhead;
+    private final Counter rejected;
+
+    public BulkheadFilter(Bulkhead bulkhead, Counter rejected) {
+        this.bulkhead = bulkhead;
+        this.rejected = rejected;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!bulkhead.tryAcquire()) {
+            rejected.increment();
+            response.setHeader("Retry-After", "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Server busy, retry shortly");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            bulkhead.release();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.skywalker.backend.config;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Minimal consecutive-failure circuit breaker for outbound calls. After {@code failureThreshold}
+ * failures in a row the circuit opens and calls are refused for {@code openDuration}; the first
+ * call after that is let through as a probe, and its outcome closes or re-opens the circuit.
+ */
+public class CircuitBreaker {
+
+    private final String name;
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Clock clock;
+
+    private int consecutiveFailures;
+    private Instant openUntil = Instant.MIN;
+    private boolean probing;
+
+    public CircuitBreaker(String name, int failureThreshold, Duration openDuration, Clock clock) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.clock = clock;
+    }
+
+    // True when the call may proceed; the caller must then report its outcome
+    public synchronized boolean tryAcquire() {
+        if (consecutiveFailures < failureThreshold) {
+            return true;
+        }
+        if (probing || clock.instant().isBefore(openUntil)) {
+            return false;
+        }
+        probing = true;
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        probing = false;
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        probing = false;
+        if (consecutiveFailures >= failureThreshold) {
+            openUntil = clock.instant().plus(openDuration);
+        }
+    }
+
+    public synchronized boolean isOpen() {
+        return consecutiveFailures >= failureThreshold;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
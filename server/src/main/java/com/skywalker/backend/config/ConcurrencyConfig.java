@@ -0,0 +1,67 @@
+package com.skywalker.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Limits that replace the implicit bound of a platform thread pool when requests run on
+ * virtual threads ({@code spring.threads.virtual.enabled}). The request bulkhead is sized
+ * against the Hikari pool: a request holds a connection only inside its transactions, so a
+ * few requests per connection keeps the pool busy without a long queue in front of it.
+ */
+@Configuration
+public class ConcurrencyConfig {
+
+    @Bean
+    public Bulkhead requestBulkhead(@Value("${app.bulkhead.requests.max-concurrent:64}") int maxConcurrent,
+                                    @Value("${app.bulkhead.requests.max-wait:2s}") Duration maxWait,
+                                    MeterRegistry meterRegistry) {
+        return register(new Bulkhead("requests", maxConcurrent, maxWait), meterRegistry);
+    }
+
+    // Ahead of the security chain, so rejected requests do not even verify their token
+    @Bean
+    public FilterRegistrationBean<BulkheadFilter> bulkheadFilter(Bulkhead requestBulkhead, MeterRegistry meterRegistry) {
+        Counter rejected = Counter.builder("app.bulkhead.rejected")
+                .tag("bulkhead", requestBulkhead.getName())
+                .register(meterRegistry);
+        FilterRegistrationBean<BulkheadFilter> registration =
+                new FilterRegistrationBean<>(new BulkheadFilter(requestBulkhead, rejected));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    // Each export holds a pooled connection for its whole download, so only a few may run at once
+    @Bean
+    public Bulkhead exportBulkhead(@Value("${app.bulkhead.exports.max-concurrent:4}") int maxConcurrent,
+                                   @Value("${app.bulkhead.exports.max-wait:0s}") Duration maxWait,
+                                   MeterRegistry meterRegistry) {
+        return register(new Bulkhead("exports", maxConcurrent, maxWait), meterRegistry);
+    }
+
+    // Imports hold a connection while the upload is read, like exports do for downloads
+    @Bean
+    public Bulkhead importBulkhead(@Value("${app.bulkhead.imports.max-concurrent:2}") int maxConcurrent,
+                                   @Value("${app.bulkhead.imports.max-wait:0s}") Duration maxWait,
+                                   MeterRegistry meterRegistry) {
+        return register(new Bulkhead("imports", maxConcurrent, maxWait), meterRegistry);
+    }
+
+    static Bulkhead register(Bulkhead bulkhead, MeterRegistry meterRegistry) {
+        Gauge.builder("app.bulkhead.in-flight", bulkhead, Bulkhead::getInFlight)
+                .tag("bulkhead", bulkhead.getName())
+                .register(meterRegistry);
+        Gauge.builder("app.bulkhead.limit", bulkhead, Bulkhead::getLimit)
+                .tag("bulkhead", bulkhead.getName())
+                .register(meterRegistry);
+        return bulkhead;
+    }
+}
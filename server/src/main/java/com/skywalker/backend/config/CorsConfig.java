@@ -20,7 +20,7 @@ public class CorsConfig {
         corsConfiguration.setAllowedOriginPatterns(Collections.singletonList("*"));
 
         // Allow specific HTTP methods
-        corsConfiguration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        corsConfiguration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
 
         // Allow specific headers
         corsConfiguration.setAllowedHeaders(Arrays.asList(
@@ -0,0 +1,54 @@
+package com.skywalker.backend.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.skywalker.backend.event.MilestoneChangedEvent;
+import com.skywalker.backend.event.UserChangedEvent;
+import com.skywalker.backend.security.AuthenticatedUser;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Users who committed a write within the sticky window. Their reads stay on the primary until
+ * the replica has had time to replay the write, so nobody reads back their own stale data.
+ * Tracked per instance; the window only needs to outlast normal replication lag.
+ */
+public class RecentWriters {
+
+    private final Cache<Long, Boolean> writers;
+
+    public RecentWriters(Duration window) {
+        this.writers = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(100_000)
+                .build();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMilestoneChanged(MilestoneChangedEvent event) {
+        record(event.userId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        record(event.userId());
+    }
+
+    public void record(Long userId) {
+        if (userId != null) {
+            writers.put(userId, Boolean.TRUE);
+        }
+    }
+
+    // The caller comes from the token claims, so this never touches the database
+    public boolean isCurrentUserRecent() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null
+                && authentication.getPrincipal() instanceof AuthenticatedUser principal
+                && writers.getIfPresent(principal.id()) != null;
+    }
+}
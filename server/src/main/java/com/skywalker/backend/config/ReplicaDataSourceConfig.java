@@ -0,0 +1,97 @@
+package com.skywalker.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthContributor;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.jdbc.DataSourceHealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Read/write splitting, active only when {@code app.datasource.replica.url} is set. Replaces the
+ * auto-configured pool with a primary pool (same {@code spring.datasource} settings), a replica
+ * pool, and a routing {@code dataSource} in front of both that JPA, JDBC and Flyway all use.
+ */
+@Configuration
+@ConditionalOnExpression("!'${app.datasource.replica.url:}'.isBlank()")
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties primary, ReplicaDataSourceProperties replica) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(primary.determineDriverClassName())
+                .url(replica.url())
+                .username(replica.username() != null ? replica.username() : primary.determineUsername())
+                .password(replica.password() != null ? replica.password() : primary.determinePassword())
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaHealth replicaHealth(@Qualifier("replicaDataSource") DataSource replica,
+                                       ReplicaDataSourceProperties properties) {
+        return new ReplicaHealth(replica, properties.maxLag());
+    }
+
+    @Bean
+    public RecentWriters recentWriters(ReplicaDataSourceProperties properties) {
+        return new RecentWriters(properties.stickyWindow());
+    }
+
+    // Named dataSource so the statement instrumentation wraps it
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaHealth replicaHealth, RecentWriters recentWriters) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica, replicaHealth, recentWriters);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    // Only the primary decides the db status; reads fall back to it, so a lost replica is not an outage
+    @Bean
+    public HealthContributor dbHealthContributor(@Qualifier("primaryDataSource") DataSource primary) {
+        return new DataSourceHealthIndicator(primary);
+    }
+
+    // OUT_OF_SERVICE rather than DOWN: reads are still served, by the primary
+    @Bean
+    public HealthIndicator replicaHealthIndicator(ReplicaHealth replicaHealth) {
+        return () -> replicaHealth.isAvailable()
+                ? Health.up().build()
+                : Health.outOfService().withDetail("reason", replicaHealth.getUnavailableReason()).build();
+    }
+
+    @Bean
+    public MeterBinder replicaHealthMetrics(ReplicaHealth replicaHealth) {
+        return registry -> Gauge.builder("app.datasource.replica.available", replicaHealth, h -> h.isAvailable() ? 1 : 0)
+                .register(registry);
+    }
+}
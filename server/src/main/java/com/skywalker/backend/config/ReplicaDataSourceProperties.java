@@ -0,0 +1,25 @@
+package com.skywalker.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Read replica that serves read-only transactions. Username and password default to the
+ * primary's; pool settings are bound separately from {@code app.datasource.replica.hikari}.
+ * The sticky window may not be shorter than the tolerated lag, or a writer could read from a
+ * replica that has not applied its write yet.
+ */
+@ConfigurationProperties(prefix = "app.datasource.replica")
+public record ReplicaDataSourceProperties(String url, String username, String password,
+                                          Duration stickyWindow, Duration maxLag) {
+
+    public ReplicaDataSourceProperties {
+        maxLag = maxLag == null ? Duration.ofSeconds(10) : maxLag;
+        stickyWindow = stickyWindow == null ? maxLag : stickyWindow;
+        if (stickyWindow.compareTo(maxLag) < 0) {
+            throw new IllegalArgumentException("app.datasource.replica.sticky-window (" + stickyWindow
+                    + ") must be at least max-lag (" + maxLag + ")");
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.skywalker.backend.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Whether reads may go to the replica. A periodic probe checks that it answers and that its
+ * replay lag is within {@code maxLag}; a failed connection attempt takes it out of rotation
+ * immediately, and the next successful probe puts it back.
+ */
+@Slf4j
+public class ReplicaHealth {
+
+    // Seconds behind the primary; 0 when everything received has been replayed, or on a non-standby
+    private static final String LAG_SQL = "SELECT CASE"
+            + " WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+            + " ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private final JdbcTemplate replica;
+    private final Duration maxLag;
+
+    // Unavailable until the first probe succeeds
+    private volatile boolean available;
+    private volatile boolean probed;
+    private volatile String unavailableReason = "not probed yet";
+
+    public ReplicaHealth(DataSource replica, Duration maxLag) {
+        this.replica = new JdbcTemplate(replica);
+        this.maxLag = maxLag;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    // Why reads last went back to the primary
+    public String getUnavailableReason() {
+        return unavailableReason;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.health-check-interval:5s}")
+    public void check() {
+        try {
+            Double lagSeconds = replica.queryForObject(LAG_SQL, Double.class);
+            if (lagSeconds != null && lagSeconds * 1000 > maxLag.toMillis()) {
+                markUnavailable("replay lag of " + lagSeconds + "s");
+            } else if (!available) {
+                available = true;
+                log.info("Read replica available, routing read-only transactions to it");
+            }
+        } catch (DataAccessException e) {
+            markUnavailable(e.getMessage());
+        }
+        probed = true;
+    }
+
+    public void markUnavailable(String reason) {
+        unavailableReason = reason;
+        if (available || !probed) {
+            available = false;
+            log.warn("Read replica unavailable, reading from the primary: {}", reason);
+        }
+    }
+}
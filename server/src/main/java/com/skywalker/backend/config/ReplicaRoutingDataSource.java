@@ -0,0 +1,58 @@
+package com.skywalker.backend.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary. Recent
+ * writers keep reading from the primary, and so does everyone while the replica is unhealthy.
+ * Must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}:
+ * the transaction managers ask for a connection before the read-only flag is bound.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target { PRIMARY, REPLICA }
+
+    private final DataSource primary;
+    private final ReplicaHealth replicaHealth;
+    private final RecentWriters recentWriters;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica,
+                                    ReplicaHealth replicaHealth, RecentWriters recentWriters) {
+        this.primary = primary;
+        this.replicaHealth = replicaHealth;
+        this.recentWriters = recentWriters;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && replicaHealth.isAvailable()
+                && !recentWriters.isCurrentUserRecent()) {
+            return Target.REPLICA;
+        }
+        return Target.PRIMARY;
+    }
+
+    // A replica that refuses connections is taken out of rotation and the read served by the primary
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource target = determineTargetDataSource();
+        try {
+            return target.getConnection();
+        } catch (SQLException e) {
+            if (target == primary) {
+                throw e;
+            }
+            replicaHealth.markUnavailable(e.getMessage());
+            return primary.getConnection();
+        }
+    }
+}
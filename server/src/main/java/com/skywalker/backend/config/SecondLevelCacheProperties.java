@@ -0,0 +1,21 @@
+package com.skywalker.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Hibernate second-level cache regions, one entry per region name used on the entities.
+ * A region with {@code max-size: 0} keeps nothing, which turns caching off for it alone.
+ */
+@ConfigurationProperties(prefix = "app.l2-cache")
+public record SecondLevelCacheProperties(boolean enabled, Map<String, Region> regions) {
+
+    public SecondLevelCacheProperties {
+        regions = regions == null ? Map.of() : regions;
+    }
+
+    public record Region(long maxSize, Duration ttl) {
+    }
+}
@@ -1,9 +1,13 @@
 package com.skywalker.backend.config;
 
+import com.skywalker.backend.security.BoundedPasswordEncoder;
 import com.skywalker.backend.security.JWTAuthFilter;
 import com.skywalker.backend.security.CustomUserDetailsService;
 import com.skywalker.backend.security.OAuth2AuthenticationSuccessHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -29,9 +33,12 @@ public class SecurityConfig {
     private final JWTAuthFilter jwtAuthFilter;
     private final OAuth2AuthenticationSuccessHandler oAuth2AuthenticationSuccessHandler;
 
+    // BCrypt on a dedicated, bounded pool so sign-in bursts cannot take every request thread
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.auth.hashing.threads:2}") int threads,
+                                           @Value("${app.auth.hashing.queue-capacity:64}") int queueCapacity,
+                                           MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), threads, queueCapacity, meterRegistry);
     }
 
     @Bean
@@ -45,6 +52,9 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .cors(Customizer.withDefaults())
                 .authorizeHttpRequests(auth -> auth
+                        // Async completions and error pages belong to a request that was already authorized;
+                        // without this, status exceptions (404, 400, ...) turn into a redirect to the login page
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/oauth2/**").permitAll()
                         .requestMatchers("/login/oauth2/**").permitAll()
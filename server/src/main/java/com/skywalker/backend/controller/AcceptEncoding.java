@@ -0,0 +1,50 @@
+package com.skywalker.backend.controller;
+
+import java.util.Locale;
+
+/**
+ * Reads an Accept-Encoding header the way RFC 9110 defines it: codings are weighted by their
+ * q-value, {@code q=0} refuses a coding, {@code x-gzip} is an alias of {@code gzip}, and
+ * {@code *} covers every coding not listed on its own.
+ */
+final class AcceptEncoding {
+
+    private AcceptEncoding() {
+    }
+
+    static boolean acceptsGzip(String header) {
+        if (header == null) {
+            return false;
+        }
+        Double gzip = null;
+        double wildcard = 0;
+        for (String element : header.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double q = quality(parts);
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = gzip == null ? q : Math.max(gzip, q);
+            } else if (coding.equals("*")) {
+                wildcard = q;
+            }
+        }
+        return (gzip != null ? gzip : wildcard) > 0;
+    }
+
+    // A malformed weight refuses the coding rather than guessing
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 1 && (parameter.charAt(0) == 'q' || parameter.charAt(0) == 'Q')
+                    && parameter.charAt(1) == '=') {
+                try {
+                    double q = Double.parseDouble(parameter.substring(2).trim());
+                    return q >= 0 && q <= 1 ? q : 0;
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -4,15 +4,22 @@ import com.skywalker.backend.dto.LoginRequest;
 import com.skywalker.backend.dto.Response;
 import com.skywalker.backend.dto.UserDTO;
 import com.skywalker.backend.model.User;
+import com.skywalker.backend.observability.QueryBudget;
+import com.skywalker.backend.security.LoginRateLimiter;
 import com.skywalker.backend.security.Utils;
 import com.skywalker.backend.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -20,6 +27,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class AuthController {
 
     private final UserService userService;
+    private final LoginRateLimiter loginRateLimiter;
 
     @PostMapping("/signup")
     public Response register(@RequestBody User user) {
@@ -27,11 +35,18 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public Response login(@RequestBody LoginRequest loginRequest) {
+    public Response login(@RequestBody LoginRequest loginRequest, HttpServletRequest request,
+                          HttpServletResponse response) {
+        // Rejected before any password hashing happens
+        if (!loginRateLimiter.tryAcquire(request.getRemoteAddr(), loginRequest.getEmail())) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(loginRateLimiter.getWindow().toSeconds()));
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many login attempts, try again later");
+        }
         return userService.login(loginRequest);
     }
 
     @GetMapping("/me")
+    @QueryBudget(1)
     public ResponseEntity<UserDTO> getCurrentUser() {
         User currentUser = userService.getCurrentUser();
         UserDTO userDTO = Utils.mapUserEntityToUserDTO(currentUser);
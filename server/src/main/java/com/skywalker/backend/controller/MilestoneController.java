@@ -1,30 +1,80 @@
 package com.skywalker.backend.controller;
 
+import com.skywalker.backend.dto.MilestoneBatchResult;
+import com.skywalker.backend.dto.MilestoneChanges;
 import com.skywalker.backend.dto.MilestoneDTO;
+import com.skywalker.backend.dto.MilestoneImportResult;
+import com.skywalker.backend.dto.MilestonePage;
+import com.skywalker.backend.dto.MilestonePatch;
+import com.skywalker.backend.dto.MilestoneQuery;
+import com.skywalker.backend.dto.MilestoneStatsDTO;
+import com.skywalker.backend.dto.StreamTicket;
 import com.skywalker.backend.model.Milestone;
 import com.skywalker.backend.model.User;
+import com.skywalker.backend.observability.QueryBudget;
+import com.skywalker.backend.config.Bulkhead;
+import com.skywalker.backend.repository.MilestoneVersion;
+import com.skywalker.backend.service.MilestoneExportService;
+import com.skywalker.backend.service.MilestoneFileFormat;
+import com.skywalker.backend.service.MilestoneImportService;
+import com.skywalker.backend.service.MilestoneListCache;
 import com.skywalker.backend.service.MilestoneService;
+import com.skywalker.backend.service.MilestoneStatsService;
+import com.skywalker.backend.service.MilestoneStreamService;
+import com.skywalker.backend.service.MilestoneSyncService;
 import com.skywalker.backend.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
 
 @RestController
 @RequestMapping("/api/milestones")
 @RequiredArgsConstructor
 public class MilestoneController {
 
+    private static final Object EXPORT_PERMIT = new Object();
+
     private final MilestoneService milestoneService;
+    private final MilestoneStatsService statsService;
+    private final MilestoneSyncService syncService;
+    private final MilestoneStreamService streamService;
+    private final MilestoneExportService exportService;
+    private final MilestoneImportService importService;
+    private final Bulkhead exportBulkhead;
+    private final Bulkhead importBulkhead;
     private final UserService userService;
+    private final ContentNegotiationManager contentNegotiationManager;
 
     // Create a new milestone
     @PostMapping
+    @QueryBudget(4)
     public ResponseEntity<MilestoneDTO> createMilestone(@RequestBody MilestoneDTO dto) {
-        // Get currently logged-in user
-        User currentUser = userService.getCurrentUser();
+        // Reference the logged-in user by id; no need to load the row
+        User currentUser = userService.getCurrentUserReference();
 
         // Map DTO to entity
         Milestone milestone = new Milestone();
@@ -40,21 +90,174 @@ public class MilestoneController {
 
     // Get all milestones
     @GetMapping
-    public ResponseEntity<List<MilestoneDTO>> getAllMilestones() {
-        List<MilestoneDTO> milestones = milestoneService.getAllMilestones();
-        return ResponseEntity.ok(milestones);
+    @QueryBudget(2)
+    public ResponseEntity<byte[]> getAllMilestones(
+            NativeWebRequest request,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding)
+            throws HttpMediaTypeNotAcceptableException {
+        // Served from the pre-serialized per-user cache, so the format is negotiated here rather than by a converter,
+        // and compressed there rather than by server.compression, which skips bodies that already have an encoding
+        MediaType format = milestoneService.negotiateListFormat(contentNegotiationManager.resolveMediaTypes(request));
+        boolean gzip = AcceptEncoding.acceptsGzip(acceptEncoding);
+
+        return milestoneService.atCollectionVersion(version -> {
+            if (notModified(request, version)) {
+                return null;
+            }
+            MilestoneListCache.Body milestones = milestoneService.getAllMilestonesEncoded(version, format, gzip);
+
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(format)
+                    .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+            if (milestones.gzipped()) {
+                response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            return response.body(milestones.bytes());
+        });
+    }
+
+    // Get one page of milestones, filtered and sorted server-side
+    @GetMapping("/page")
+    @QueryBudget(1)
+    public ResponseEntity<MilestonePage> getMilestonePage(MilestoneQuery query) {
+        return ResponseEntity.ok(milestoneService.getMilestonePage(query));
+    }
+
+    // Ranked full-text search with prefix matching, for type-ahead; pages continue from nextCursor
+    @GetMapping("/search")
+    @QueryBudget(1)
+    public ResponseEntity<MilestonePage> searchMilestones(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(milestoneService.searchMilestones(q, cursor, limit));
+    }
+
+    // Milestones written and deleted since the cursor from the previous sync; omit it for a full sync
+    @GetMapping("/changes")
+    @QueryBudget(4)
+    public ResponseEntity<MilestoneChanges> getChanges(@RequestParam(required = false) String since) {
+        return ResponseEntity.ok(syncService.getChanges(since));
+    }
+
+    // Ticket for opening the event stream from a browser; pass it as ?ticket= within its lifetime
+    @PostMapping("/stream/ticket")
+    @QueryBudget(0)
+    public ResponseEntity<StreamTicket> issueStreamTicket() {
+        return ResponseEntity.ok(userService.issueStreamTicket());
+    }
+
+    // Live updates: an event with the new cursor after every committed change to the user's milestones
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges() {
+        return streamService.subscribe(userService.getCurrentUserId());
+    }
+
+    // Every milestone of the user as CSV or NDJSON, streamed; gzip-encoded when the client accepts it
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportMilestones(
+            NativeWebRequest request,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        MilestoneFileFormat exportFormat = MilestoneFileFormat.parse(format);
+        Long userId = userService.getCurrentUserId();
+        boolean gzip = AcceptEncoding.acceptsGzip(acceptEncoding);
+
+        if (!exportBulkhead.tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many exports in progress, try again later");
+        }
+        // Released once, by whichever comes first: the body finishing, or the async request ending
+        // without it (timeout, client gone, executor rejection), in which case the body never runs
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                exportBulkhead.release();
+            }
+        };
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(EXPORT_PERMIT,
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void afterCompletion(NativeWebRequest asyncRequest, Callable<T> task) {
+                        release.run();
+                    }
+                });
+        StreamingResponseBody body = out -> {
+            try {
+                exportService.export(userId, exportFormat, gzip, out);
+            } finally {
+                release.run();
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("milestones." + exportFormat.getExtension()).build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    // Bulk load of a CSV or NDJSON file in the export format; a row carrying the id of one of the
+    // caller's milestones replaces it, other rows are added, invalid ones are skipped and reported by line
+    @PostMapping("/import")
+    @QueryBudget(6)
+    public ResponseEntity<MilestoneImportResult> importMilestones(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            InputStream body) throws IOException {
+        MilestoneFileFormat importFormat = MilestoneFileFormat.parse(format);
+        Long userId = userService.getCurrentUserId();
+
+        if (!importBulkhead.tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many imports in progress, try again later");
+        }
+        // The gzip header is read from the client, so it is only unwrapped once the permit is held
+        try {
+            InputStream in = "gzip".equalsIgnoreCase(contentEncoding) ? new GZIPInputStream(body) : body;
+            return ResponseEntity.ok(importService.importMilestones(userId, importFormat, in));
+        } catch (ZipException | EOFException e) {
+            throw invalidGzip();
+        } catch (UncheckedIOException e) {
+            // Also raised mid-upload, where GZIPInputStream reports corrupt data and truncation this way
+            throw e.getCause() instanceof ZipException || e.getCause() instanceof EOFException ? invalidGzip() : e;
+        } finally {
+            importBulkhead.release();
+        }
+    }
+
+    // Dashboard numbers, aggregated in the database
+    @GetMapping("/stats")
+    @QueryBudget(4)
+    public ResponseEntity<MilestoneStatsDTO> getStats(
+            @RequestParam(defaultValue = "7") int upcomingDays,
+            @RequestParam(defaultValue = "12") int weeks,
+            @RequestParam(defaultValue = "12") int months) {
+        if (upcomingDays < 0 || upcomingDays > 365 || weeks < 1 || weeks > 52 || months < 1 || months > 24) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Stats window out of range");
+        }
+        return ResponseEntity.ok(statsService.getStats(upcomingDays, weeks, months));
     }
 
     // Get milestone by ID
     @GetMapping("/{id}")
-    public ResponseEntity<MilestoneDTO> getMilestoneById(@PathVariable Long id) {
-        return milestoneService.getMilestoneById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    @QueryBudget(2)
+    public ResponseEntity<MilestoneDTO> getMilestoneById(@PathVariable Long id, WebRequest request) {
+        return milestoneService.atCollectionVersion(version -> {
+            if (notModified(request, version)) {
+                return null;
+            }
+            return milestoneService.getMilestoneById(id)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        });
     }
 
     // Update milestone
     @PutMapping("/{id}")
+    @QueryBudget(5)
     public ResponseEntity<MilestoneDTO> updateMilestone(@PathVariable Long id, @RequestBody MilestoneDTO dto) {
         Milestone milestone = new Milestone();
         milestone.setTitle(dto.getTitle());
@@ -63,15 +266,72 @@ public class MilestoneController {
         milestone.setCompleted(dto.isCompleted());
         milestone.setCompletedDate(dto.getCompletedDate());
 
-        return milestoneService.updateMilestone(id, milestone)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        return ResponseEntity.ok(milestoneService.updateMilestone(id, milestone));
+    }
+
+    // Partially update milestone; omitted fields are left unchanged
+    @PatchMapping("/{id}")
+    @QueryBudget(4)
+    public ResponseEntity<MilestoneDTO> patchMilestone(@PathVariable Long id, @RequestBody MilestonePatch patch) {
+        return ResponseEntity.ok(milestoneService.patchMilestone(id, patch));
+    }
+
+    // Mark milestone as complete
+    @PostMapping("/{id}/complete")
+    @QueryBudget(4)
+    public ResponseEntity<MilestoneDTO> completeMilestone(@PathVariable Long id) {
+        return ResponseEntity.ok(milestoneService.completeMilestone(id));
+    }
+
+    // Batch endpoints: arrays in, per-item results out, one transaction per request
+
+    // Sized for 500 items: rollup lock, 10 id blocks, 10 JDBC insert batches of 50 and the rollup delta
+    @PostMapping("/batch")
+    @QueryBudget(24)
+    public ResponseEntity<MilestoneBatchResult> createMilestones(@RequestBody List<MilestoneDTO> dtos) {
+        return ResponseEntity.ok(milestoneService.createMilestones(dtos));
+    }
+
+    @PutMapping("/batch")
+    @QueryBudget(5)
+    public ResponseEntity<MilestoneBatchResult> updateMilestones(@RequestBody List<MilestoneDTO> dtos) {
+        return ResponseEntity.ok(milestoneService.updateMilestones(dtos));
+    }
+
+    @PostMapping("/batch/complete")
+    @QueryBudget(4)
+    public ResponseEntity<MilestoneBatchResult> completeMilestones(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(milestoneService.completeMilestones(ids));
+    }
+
+    @PostMapping("/batch/delete")
+    @QueryBudget(4)
+    public ResponseEntity<MilestoneBatchResult> deleteMilestones(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(milestoneService.deleteMilestones(ids));
     }
 
     // Delete milestone
     @DeleteMapping("/{id}")
+    @QueryBudget(4)
     public ResponseEntity<Void> deleteMilestone(@PathVariable Long id) {
         milestoneService.deleteMilestone(id);
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Answers If-None-Match / If-Modified-Since from the user's collection version, which every
+     * write bumps, so an unchanged collection costs one primary key lookup and an empty 304.
+     * Otherwise sets ETag and Last-Modified. Callers read the rows in the same snapshot as the
+     * version (see {@link MilestoneService#atCollectionVersion}), so the validator always
+     * describes the body it is sent with, even when both come from a lagging replica.
+     */
+    private static boolean notModified(WebRequest request, Optional<MilestoneVersion> version) {
+        return version
+                .map(current -> request.checkNotModified(current.etag(), current.modifiedAt().toEpochMilli()))
+                .orElse(false);
+    }
+
+    private static ResponseStatusException invalidGzip() {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Request body is not valid gzip");
+    }
 }
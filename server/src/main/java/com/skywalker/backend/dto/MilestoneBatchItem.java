@@ -0,0 +1,28 @@
+package com.skywalker.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Outcome of one entry of a batch request, in request order
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MilestoneBatchItem {
+
+    private int index;
+    private Long id;
+    private int status;
+    private String message;
+    private MilestoneDTO milestone;
+
+    public static MilestoneBatchItem succeeded(int index, Long id, int status, MilestoneDTO milestone) {
+        return new MilestoneBatchItem(index, id, status, null, milestone);
+    }
+
+    public static MilestoneBatchItem failed(int index, Long id, int status, String message) {
+        return new MilestoneBatchItem(index, id, status, message, null);
+    }
+}
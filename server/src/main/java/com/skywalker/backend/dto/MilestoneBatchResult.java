@@ -0,0 +1,21 @@
+package com.skywalker.backend.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class MilestoneBatchResult {
+
+    private int succeeded;
+    private int failed;
+    private List<MilestoneBatchItem> results;
+
+    public MilestoneBatchResult(List<MilestoneBatchItem> results) {
+        this.results = results;
+        this.succeeded = (int) results.stream().filter(r -> r.getStatus() < 400).count();
+        this.failed = results.size() - succeeded;
+    }
+}
@@ -0,0 +1,22 @@
+package com.skywalker.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Milestones written and deleted since the client's cursor. Clients apply {@code upserts}
+ * and {@code deleted} to their local copy and pass {@code cursor} on the next request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MilestoneChanges {
+
+    private List<MilestoneDTO> upserts;
+    private List<Long> deleted;
+    private String cursor;
+    private boolean full; // true when upserts is the whole collection and local state must be replaced
+}
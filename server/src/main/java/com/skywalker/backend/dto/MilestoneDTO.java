@@ -1,12 +1,16 @@
 package com.skywalker.backend.dto;
 
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import com.fasterxml.jackson.annotation.JsonFormat;
 
 import java.time.LocalDate;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor // used by the constructor projections in MilestoneRepository
 public class MilestoneDTO {
 
     private Long id;
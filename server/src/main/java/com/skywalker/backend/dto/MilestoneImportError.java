@@ -0,0 +1,15 @@
+package com.skywalker.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A rejected import row, by line number in the uploaded file
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MilestoneImportError {
+
+    private int line;
+    private String message;
+}
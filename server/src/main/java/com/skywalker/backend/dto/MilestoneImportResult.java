@@ -0,0 +1,18 @@
+package com.skywalker.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Outcome of a bulk import; errors lists the first rejected rows, failed counts all of them
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MilestoneImportResult {
+
+    private int imported;
+    private int failed;
+    private List<MilestoneImportError> errors;
+}
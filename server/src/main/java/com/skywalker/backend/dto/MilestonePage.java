@@ -0,0 +1,19 @@
+package com.skywalker.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MilestonePage {
+
+    private List<MilestoneDTO> items;
+    private String nextCursor; // null on the last page
+    private boolean hasMore;
+}
@@ -0,0 +1,26 @@
+package com.skywalker.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Partial update of a milestone. Null fields are left unchanged; setting
+ * {@code completed} to false also clears the completion date, and may not be
+ * combined with a {@code completedDate}. A completion date sent for a milestone
+ * that stays incomplete is ignored.
+ */
+@Data
+public class MilestonePatch {
+
+    private String title;
+    private String description;
+    private Boolean completed;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate achieveDate;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate completedDate;
+}
@@ -0,0 +1,33 @@
+package com.skywalker.backend.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Query parameters for the paginated milestone listing. All filters are optional;
+ * {@code cursor} is the opaque {@code nextCursor} returned with the previous page.
+ */
+@Data
+public class MilestoneQuery {
+
+    private Boolean completed;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate achieveFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate achieveTo;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate createdFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate createdTo;
+
+    private String sort = "id";          // id, achieveDate or createdDate
+    private String direction = "asc";    // asc or desc
+    private String cursor;
+    private Integer limit;
+}
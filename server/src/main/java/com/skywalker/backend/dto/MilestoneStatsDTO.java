@@ -0,0 +1,35 @@
+package com.skywalker.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+public class MilestoneStatsDTO {
+
+    private long total;
+    private long completed;
+    private long pending;
+    private long overdue;   // pending with an achieve date in the past
+    private long upcoming;  // pending and due within the upcoming window
+    private int completionRate; // percent of all milestones
+
+    private List<PeriodCount> completionsPerWeek;
+    private List<PeriodCount> completionsPerMonth;
+
+    // Completions in the period starting at {@code period} (Monday of the week, first of the month)
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PeriodCount {
+
+        @JsonFormat(pattern = "yyyy-MM-dd")
+        private LocalDate period;
+
+        private long count;
+    }
+}
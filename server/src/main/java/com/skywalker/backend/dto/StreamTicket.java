@@ -0,0 +1,18 @@
+package com.skywalker.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Short-lived credential for opening the milestone event stream, passed as the {@code ticket}
+ * query parameter because EventSource cannot send headers. It is not accepted anywhere else.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StreamTicket {
+
+    private String ticket;
+    private long expiresIn; // seconds
+}
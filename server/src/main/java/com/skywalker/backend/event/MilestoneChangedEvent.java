@@ -0,0 +1,10 @@
+package com.skywalker.backend.event;
+
+/**
+ * Published by {@link com.skywalker.backend.service.MilestoneService} for every write to a
+ * user's milestones. {@code version} is the collection version the write took, usable as a
+ * cursor for {@code /api/milestones/changes}. Listeners that need committed data must use
+ * {@code @TransactionalEventListener}.
+ */
+public record MilestoneChangedEvent(Long userId, long version) {
+}
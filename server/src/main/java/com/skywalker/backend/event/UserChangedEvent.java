@@ -0,0 +1,8 @@
+package com.skywalker.backend.event;
+
+/**
+ * Published whenever a user row is inserted, updated or deleted, so listeners such as
+ * {@link com.skywalker.backend.config.RecentWriters} can react after commit.
+ */
+public record UserChangedEvent(Long userId, String email) {
+}
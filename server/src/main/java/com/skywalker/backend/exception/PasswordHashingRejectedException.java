@@ -0,0 +1,12 @@
+package com.skywalker.backend.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+// Password hashing is saturated; surfaced as 503 instead of being reported as a failed login
+public class PasswordHashingRejectedException extends ResponseStatusException {
+
+    public PasswordHashingRejectedException() {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Too many sign-in requests, retry shortly");
+    }
+}
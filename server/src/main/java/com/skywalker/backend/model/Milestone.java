@@ -4,17 +4,26 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.time.LocalDate;
 
 @Data
 @Entity
 @Table(name = "milestones")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "milestones")
 public class Milestone {
 
+    // Pooled sequence so inserts can be JDBC-batched; one sequence call per 50 ids
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "milestones_seq")
+    @SequenceGenerator(name = "milestones_seq", sequenceName = "milestones_seq", allocationSize = 50)
     private Long id;
 
     private String title;
@@ -31,6 +40,20 @@ public class Milestone {
     @JsonFormat(pattern = "yyyy-MM-dd")
     private LocalDate completedDate=null;
 
+    // Optimistic lock for JPA updates; the JDBC updates in MilestoneRepositoryImpl bump it by hand
+    @Version
+    @ColumnDefault("0")
+    @JsonIgnore
+    private long version;
+
+    @UpdateTimestamp
+    @JsonIgnore
+    private Instant updatedAt;
+
+    // Collection version of the write that last touched this row; drives /changes
+    @ColumnDefault("0")
+    @JsonIgnore
+    private long changeSeq;
 
 
     @PreUpdate
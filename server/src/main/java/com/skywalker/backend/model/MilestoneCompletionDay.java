@@ -0,0 +1,30 @@
+package com.skywalker.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+// Number of a user's milestones completed on a given day; the source of the completion charts
+@Data
+@Entity
+@Table(name = "milestone_completion_days")
+public class MilestoneCompletionDay {
+
+    @EmbeddedId
+    private Key id;
+
+    private long completions;
+
+    @Data
+    @Embeddable
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private LocalDate day;
+    }
+}
@@ -0,0 +1,36 @@
+package com.skywalker.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.Instant;
+
+/**
+ * Per-user totals over the milestones table, maintained incrementally on every write by
+ * {@link com.skywalker.backend.service.MilestoneRollupService}. A row created on a user's
+ * first write is flagged {@code needsRebuild} until it has been recomputed from scratch.
+ */
+@Data
+@Entity
+@Table(name = "milestone_rollups")
+public class MilestoneRollup {
+
+    @Id
+    private Long userId;
+
+    private long totalCount;
+    private long completedCount;
+    private boolean needsRebuild;
+    private Instant updatedAt;
+
+    // Bumped by every write to the user's milestones; backs ETag and Last-Modified
+    @ColumnDefault("0")
+    private long version;
+    @ColumnDefault("now()")
+    private Instant modifiedAt;
+
+    // Changes at or below this version may have had their tombstones purged
+    @ColumnDefault("0")
+    private long tombstoneFloor;
+}
@@ -0,0 +1,22 @@
+package com.skywalker.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+// Record of a deleted milestone, kept so delta sync can report the deletion; purged after a retention period
+@Data
+@Entity
+@Table(name = "milestone_tombstones")
+public class MilestoneTombstone {
+
+    @Id
+    private Long milestoneId;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    private long changeSeq;
+    private Instant deletedAt;
+}
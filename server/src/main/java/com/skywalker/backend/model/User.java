@@ -1,9 +1,14 @@
 package com.skywalker.backend.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.skywalker.backend.repository.UserChangeListener;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -16,6 +21,10 @@ import java.util.List;
 @Data
 @Entity
 @Table(name = "users")
+@EntityListeners(UserChangeListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@NaturalIdCache(region = "users-by-email")
 public class User implements UserDetails{
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -24,6 +33,7 @@ public class User implements UserDetails{
     private String firstName;
     private String lastName;
 
+    @NaturalId
     @Column(unique = true, nullable = false)
     private String email;
 
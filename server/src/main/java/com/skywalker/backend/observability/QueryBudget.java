@@ -0,0 +1,18 @@
+package com.skywalker.backend.observability;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maximum number of SQL statements a handler method may run per request. Going over is
+ * logged, and fails the request when {@code app.sql.query-budget.enforce} is on, as it is in
+ * tests, so an N+1 regression breaks the build rather than production latency.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    int value();
+}
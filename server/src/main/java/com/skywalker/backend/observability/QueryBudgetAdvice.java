@@ -0,0 +1,52 @@
+package com.skywalker.backend.observability;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Checks a handler's {@link QueryBudget} once it has returned and before its body is written,
+ * while the response can still become an error. In enforcing mode an overrun fails the request
+ * with a 500 that reaches the client, instead of surfacing after the response has been sent.
+ */
+@Slf4j
+@ControllerAdvice
+public class QueryBudgetAdvice implements ResponseBodyAdvice<Object> {
+
+    private final boolean enforceBudgets;
+
+    public QueryBudgetAdvice(@Value("${app.sql.query-budget.enforce:false}") boolean enforceBudgets) {
+        this.enforceBudgets = enforceBudgets;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return returnType.hasMethodAnnotation(QueryBudget.class);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        QueryStats stats = QueryStats.current();
+        QueryBudget budget = returnType.getMethodAnnotation(QueryBudget.class);
+        if (stats == null || budget == null) {
+            return body;
+        }
+        String name = QueryStatsFilter.handlerName(returnType.getContainingClass(), returnType.getMethod());
+        String overrun = stats.checkBudget(name, budget.value());
+        if (overrun != null) {
+            if (enforceBudgets) {
+                throw new IllegalStateException(overrun);
+            }
+            log.warn(overrun);
+        }
+        return body;
+    }
+}
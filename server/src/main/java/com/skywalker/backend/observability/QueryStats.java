@@ -0,0 +1,82 @@
+package com.skywalker.backend.observability;
+
+/**
+ * Statements run and time spent in the database by the current request. Bound to the request
+ * thread by {@link QueryStatsFilter} and fed by {@link QueryStatsListener}; statements run
+ * outside a request (scheduled jobs) are not counted.
+ */
+public final class QueryStats {
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private int exemptStatements;
+    private int exemptDepth;
+    private long elapsedNanos;
+    private boolean overBudgetReported;
+
+    static QueryStats start() {
+        QueryStats stats = new QueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Describes the overrun when more statements than {@code budget} have run so far, or returns
+     * null. An overrun is only described once per request, however often it is checked.
+     */
+    String checkBudget(String handler, int budget) {
+        int budgeted = statements - exemptStatements;
+        if (overBudgetReported || budgeted <= budget) {
+            return null;
+        }
+        overBudgetReported = true;
+        return handler + " ran " + budgeted + " SQL statements, budget is " + budget;
+    }
+
+    static void record(int statements, long elapsedNanos) {
+        QueryStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statements += statements;
+            stats.elapsedNanos += elapsedNanos;
+            if (stats.exemptDepth > 0) {
+                stats.exemptStatements += statements;
+            }
+        }
+    }
+
+    /**
+     * Runs {@code work} without charging its statements to the handler's {@link QueryBudget}.
+     * Meant for occasional repair work, such as a rollup rebuild, whose cost does not depend on
+     * the request; the statements still count towards the request's metrics.
+     */
+    public static void exemptFromBudget(Runnable work) {
+        QueryStats stats = CURRENT.get();
+        if (stats == null) {
+            work.run();
+            return;
+        }
+        stats.exemptDepth++;
+        try {
+            work.run();
+        } finally {
+            stats.exemptDepth--;
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+}
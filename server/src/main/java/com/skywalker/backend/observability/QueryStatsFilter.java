@@ -0,0 +1,78 @@
+package com.skywalker.backend.observability;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects {@link QueryStats} for each request and publishes them per handler method as
+ * {@code app.db.statements} (statements per request) and {@code app.db.time} (database time
+ * per request), tagged e.g. {@code handler=MilestoneController.getAllMilestones}.
+ * Budgets are checked by {@link QueryBudgetAdvice} before the body is written; the check here
+ * catches what runs later, and responses without a body such as 304s.
+ */
+@Slf4j
+public class QueryStatsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enforceBudgets;
+
+    public QueryStatsFilter(MeterRegistry meterRegistry, boolean enforceBudgets) {
+        this.meterRegistry = meterRegistry;
+        this.enforceBudgets = enforceBudgets;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryStats stats = QueryStats.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryStats.clear();
+        }
+
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        if (!(handler instanceof HandlerMethod method)) {
+            return;
+        }
+        String name = handlerName(method.getBeanType(), method.getMethod());
+        DistributionSummary.builder("app.db.statements")
+                .tag("handler", name)
+                .register(meterRegistry)
+                .record(stats.getStatements());
+        Timer.builder("app.db.time")
+                .tag("handler", name)
+                .register(meterRegistry)
+                .record(stats.getElapsedNanos(), TimeUnit.NANOSECONDS);
+
+        QueryBudget budget = method.getMethodAnnotation(QueryBudget.class);
+        String overrun = budget == null ? null : stats.checkBudget(name, budget.value());
+        if (overrun == null) {
+            return;
+        }
+        // Once the response is committed the client already has its status; failing now would go unnoticed
+        if (enforceBudgets && !response.isCommitted()) {
+            throw new IllegalStateException(overrun);
+        }
+        log.warn(overrun);
+    }
+
+    static String handlerName(Class<?> beanType, Method method) {
+        return beanType.getSimpleName() + "." + method.getName();
+    }
+}
@@ -0,0 +1,41 @@
+package com.skywalker.backend.observability;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Counts every executed statement towards the current request and logs slow ones. Bind
+ * parameters are never logged, only how many there were, since they carry user data.
+ */
+@Slf4j
+public class QueryStatsListener implements QueryExecutionListener {
+
+    private final long slowThresholdMillis;
+
+    public QueryStatsListener(Duration slowThreshold) {
+        this.slowThresholdMillis = slowThreshold.toMillis();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        QueryStats.record(queryInfoList.size(), TimeUnit.MILLISECONDS.toNanos(execInfo.getElapsedTime()));
+
+        if (execInfo.getElapsedTime() >= slowThresholdMillis) {
+            String sql = queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+            int parameterSets = queryInfoList.stream().mapToInt(q -> q.getParametersList().size()).sum();
+            log.warn("Slow SQL ({} ms, batch size {}, {} parameter sets redacted, success={}): {}",
+                    execInfo.getElapsedTime(), execInfo.getBatchSize(), parameterSets, execInfo.isSuccess(), sql);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.skywalker.backend.observability;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Wraps the application data source in a datasource-proxy that feeds per-request statement
+ * counts and the slow-query log, replacing Hibernate's show-sql output.
+ */
+@Configuration
+public class SqlObservabilityConfig {
+
+    @Bean
+    public static BeanPostProcessor queryStatsDataSourcePostProcessor(
+            @Value("${app.sql.slow-query-threshold:200ms}") Duration slowQueryThreshold) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // Only the data source the application uses, wrapped once
+                if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(new QueryStatsListener(slowQueryThreshold))
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Outermost, so rejected and unauthenticated requests are measured too
+    @Bean
+    public FilterRegistrationBean<QueryStatsFilter> queryStatsFilter(
+            MeterRegistry meterRegistry,
+            @Value("${app.sql.query-budget.enforce:false}") boolean enforceBudgets) {
+        FilterRegistrationBean<QueryStatsFilter> registration =
+                new FilterRegistrationBean<>(new QueryStatsFilter(meterRegistry, enforceBudgets));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
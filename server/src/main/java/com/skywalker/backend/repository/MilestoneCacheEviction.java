@@ -0,0 +1,33 @@
+package com.skywalker.backend.repository;
+
+import com.skywalker.backend.model.Milestone;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+// SQL writes bypass Hibernate, so the rows they touched are dropped from the second-level cache
+// now and again after completion, in case a concurrent read cached the old state meanwhile
+final class MilestoneCacheEviction {
+
+    private MilestoneCacheEviction() {
+    }
+
+    static void evict(EntityManager entityManager, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        ids.forEach(id -> cache.evict(Milestone.class, id));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    ids.forEach(id -> cache.evict(Milestone.class, id));
+                }
+            });
+        }
+    }
+}
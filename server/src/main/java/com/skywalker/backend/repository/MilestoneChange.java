@@ -0,0 +1,9 @@
+package com.skywalker.backend.repository;
+
+import com.skywalker.backend.dto.MilestoneDTO;
+
+import java.time.LocalDate;
+
+// Updated milestone together with its completion state before the update
+public record MilestoneChange(MilestoneDTO milestone, boolean wasCompleted, LocalDate wasCompletedDate) {
+}
@@ -0,0 +1,175 @@
+package com.skywalker.backend.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Bulk loading of milestones: rows are streamed with COPY into a temporary staging table and
+ * then merged into {@code milestones}, one statement updating the rows that carry the id of one
+ * of the user's milestones and one inserting the rest. Everything runs on the connection of the
+ * current transaction; the staging table is dropped at commit.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MilestoneImportRepository {
+
+    // Must match the allocationSize of milestones_seq on Milestone
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public void createStaging() {
+        jdbcTemplate.getJdbcTemplate().execute("CREATE TEMPORARY TABLE milestone_import ("
+                + " line INT NOT NULL, id BIGINT, title TEXT, description TEXT, completed BOOLEAN NOT NULL,"
+                + " achieve_date DATE, created_date DATE, completed_date DATE) ON COMMIT DROP");
+    }
+
+    /** Runs {@code rows} against a COPY into the staging table and returns the number of rows copied. */
+    public long copyIntoStaging(StagingRows rows) {
+        String sql = "COPY milestone_import (line, id, title, description, completed, achieve_date, created_date,"
+                + " completed_date) FROM STDIN WITH (FORMAT csv)";
+        return jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<Long>) con -> {
+            CopyIn copy = con.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+            try {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(
+                        new PGCopyOutputStream(copy, 65536), StandardCharsets.UTF_8));
+                rows.writeTo(new StagingWriter(writer));
+                writer.flush();
+                return copy.endCopy();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                if (copy.isActive()) {
+                    copy.cancelCopy();
+                }
+            }
+        });
+    }
+
+    /**
+     * Staged rows carrying the id of one of the user's milestones replace it; a missing created
+     * date keeps the stored one. Returns the number of milestones updated.
+     */
+    public int updateExisting(Long userId, long changeSeq, LocalDate today) {
+        String sql = "UPDATE milestones m SET title = s.title, description = s.description,"
+                + "   completed = s.completed, achieve_date = s.achieve_date,"
+                + "   created_date = COALESCE(s.created_date, m.created_date),"
+                + "   completed_date = CASE WHEN s.completed THEN COALESCE(s.completed_date, m.completed_date, :today) END,"
+                + "   version = m.version + 1, updated_at = now(), change_seq = :changeSeq"
+                + " FROM milestone_import s WHERE m.id = s.id AND m.user_id = :userId"
+                + " RETURNING m.id";
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("changeSeq", changeSeq)
+                .addValue("today", today);
+        List<Long> updated = jdbcTemplate.queryForList(sql, params, Long.class);
+        MilestoneCacheEviction.evict(entityManager, updated);
+        return updated.size();
+    }
+
+    /**
+     * Inserts the staged rows that did not match one of the user's milestones, in line order,
+     * under new ids. Ids are taken from milestones_seq in blocks the same way Hibernate's pooled
+     * optimizer does (a sequence value is the last id of its block), so they never collide with
+     * ids Hibernate hands out. {@code rows} bounds the number inserted and sizes the allocation.
+     */
+    public int insertNew(Long userId, long changeSeq, long rows, LocalDate today) {
+        // One spare block: the sequence's very first value would start its block below 1
+        long blocks = (rows + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE + 1;
+        String sql = "WITH staged AS ("
+                + "   SELECT *, row_number() OVER (ORDER BY line) AS rn FROM milestone_import s"
+                + "   WHERE s.id IS NULL"
+                + "      OR NOT EXISTS (SELECT 1 FROM milestones m WHERE m.id = s.id AND m.user_id = :userId)),"
+                + " blocks AS ("
+                + "   SELECT nextval('milestones_seq') AS hi FROM generate_series(1, :blocks)),"
+                + " ids AS ("
+                + "   SELECT b.hi - :blockSize + 1 + o AS id, row_number() OVER (ORDER BY b.hi, o) AS rn"
+                + "   FROM blocks b CROSS JOIN generate_series(0, :blockSize - 1) o"
+                + "   WHERE b.hi - :blockSize + 1 + o > 0)"
+                + " INSERT INTO milestones (id, title, description, completed, achieve_date, created_date,"
+                + "   completed_date, user_id, version, updated_at, change_seq)"
+                + " SELECT ids.id, s.title, s.description, s.completed, s.achieve_date,"
+                + "   COALESCE(s.created_date, :today), CASE WHEN s.completed THEN COALESCE(s.completed_date, :today) END,"
+                + "   :userId, 0, now(), :changeSeq"
+                + " FROM staged s JOIN ids ON ids.rn = s.rn";
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("blocks", blocks)
+                .addValue("blockSize", ID_BLOCK_SIZE)
+                .addValue("userId", userId)
+                .addValue("changeSeq", changeSeq)
+                .addValue("today", today);
+        return jdbcTemplate.update(sql, params);
+    }
+
+    @FunctionalInterface
+    public interface StagingRows {
+
+        void writeTo(StagingWriter writer) throws IOException;
+    }
+
+    // Encodes rows in COPY's CSV format: unquoted empty is NULL, strings are always quoted
+    public static class StagingWriter {
+
+        private final Writer writer;
+
+        StagingWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        public void write(int line, Long id, String title, String description, boolean completed,
+                          LocalDate achieveDate, LocalDate createdDate, LocalDate completedDate) throws IOException {
+            writer.write(Integer.toString(line));
+            writer.write(',');
+            if (id != null) {
+                writer.write(id.toString());
+            }
+            writer.write(',');
+            writeText(title);
+            writer.write(',');
+            writeText(description);
+            writer.write(',');
+            writer.write(completed ? 't' : 'f');
+            writer.write(',');
+            writeDate(achieveDate);
+            writer.write(',');
+            writeDate(createdDate);
+            writer.write(',');
+            writeDate(completedDate);
+            writer.write('\n');
+        }
+
+        private void writeText(String value) throws IOException {
+            if (value != null) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            }
+        }
+
+        private void writeDate(LocalDate value) throws IOException {
+            if (value != null) {
+                writer.write(value.toString());
+            }
+        }
+    }
+}
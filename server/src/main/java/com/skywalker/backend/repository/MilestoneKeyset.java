@@ -0,0 +1,36 @@
+package com.skywalker.backend.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a page: the sort column value (null for rows without
+ * one, which sort last) and the id used as tie-breaker. Encoded as an opaque cursor
+ * that also records the ordering it belongs to.
+ */
+public record MilestoneKeyset(MilestoneSort sort, boolean descending, LocalDate value, long id) {
+
+    public String encode() {
+        String raw = sort.name() + "|" + (descending ? "desc" : "asc") + "|"
+                + (value != null ? value : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MilestoneKeyset decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new MilestoneKeyset(
+                    MilestoneSort.valueOf(parts[0]),
+                    "desc".equals(parts[1]),
+                    parts[2].isEmpty() ? null : LocalDate.parse(parts[2]),
+                    Long.parseLong(parts[3]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
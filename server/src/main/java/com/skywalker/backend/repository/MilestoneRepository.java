@@ -1,16 +1,33 @@
 package com.skywalker.backend.repository;
 
+import com.skywalker.backend.dto.MilestoneDTO;
 import com.skywalker.backend.model.Milestone;
-import com.skywalker.backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 
-public interface MilestoneRepository extends JpaRepository<Milestone,Long> {
+public interface MilestoneRepository extends JpaRepository<Milestone,Long>, MilestoneRepositoryCustom {
 
-    List<Milestone> findByUser(User user);
+    // Read paths project straight into DTOs: only the needed columns, no managed entities
+    String DTO_SELECT = "select new com.skywalker.backend.dto.MilestoneDTO("
+            + "m.id, m.title, m.description, m.completed, m.achieveDate, m.createdDate, m.completedDate, m.user.id)"
+            + " from Milestone m";
 
-    Optional<Milestone> findByIdAndUser(Long id, User user);
+    @Query(DTO_SELECT + " where m.user.id = :userId order by m.id")
+    List<MilestoneDTO> findAllDTOByUserId(@Param("userId") Long userId);
+
+    @Query(DTO_SELECT + " where m.id = :id and m.user.id = :userId")
+    Optional<MilestoneDTO> findDTOByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    // Primary key lookup, so it can be answered from the second-level cache
+    default Optional<Milestone> findOwned(Long id, Long userId) {
+        return findById(id).filter(milestone -> milestone.getUser().getId().equals(userId));
+    }
+
+    List<Milestone> findByIdInAndUserId(Collection<Long> ids, Long userId);
 }
\ No newline at end of file
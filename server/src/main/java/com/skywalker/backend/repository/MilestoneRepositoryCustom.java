@@ -0,0 +1,56 @@
+package com.skywalker.backend.repository;
+
+import com.skywalker.backend.dto.MilestoneDTO;
+import com.skywalker.backend.dto.MilestonePatch;
+import com.skywalker.backend.dto.MilestoneQuery;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public interface MilestoneRepositoryCustom {
+
+    /**
+     * Returns up to {@code limit} milestones of the user matching the query filters,
+     * ordered by {@code sort} and starting strictly after {@code after} (null for the first page).
+     */
+    List<MilestoneDTO> findPage(Long userId, MilestoneQuery query, MilestoneSort sort, boolean descending,
+                                MilestoneKeyset after, int limit);
+
+    /**
+     * Up to {@code limit} milestones of the user matching the tsquery, best ranked first (ties by
+     * id, descending) and starting strictly after {@code after} (null for the first page).
+     */
+    List<MilestoneSearchHit> search(Long userId, String tsQuery, MilestoneSearchKeyset after, int limit);
+
+    // Single-statement writes scoped to the owner; empty when no such milestone belongs to the user.
+    // Updates report the previous completion state, deletes return the removed row and leave a tombstone.
+    // changeSeq is the collection version the write was made under.
+
+    Optional<MilestoneChange> patchOwned(long id, Long userId, long changeSeq, MilestonePatch patch, LocalDate today);
+
+    Optional<MilestoneChange> completeOwned(long id, Long userId, long changeSeq, LocalDate today);
+
+    Optional<MilestoneDTO> deleteOwned(long id, Long userId, long changeSeq);
+
+    // Set-based variants for batch requests; return the rows that were affected
+
+    List<MilestoneChange> completeAllOwned(Collection<Long> ids, Long userId, long changeSeq, LocalDate today);
+
+    List<MilestoneDTO> deleteAllOwned(Collection<Long> ids, Long userId, long changeSeq);
+
+    // Delta sync: rows written and ids deleted after the given change sequence
+
+    List<MilestoneDTO> findChangedSince(Long userId, long since);
+
+    List<Long> findDeletedSince(Long userId, long since);
+
+    /**
+     * Passes every milestone of the user to {@code action}, in id order, reading them through a
+     * forward-only cursor {@code fetchSize} rows at a time. Must run inside a transaction, or the
+     * driver fetches the whole result at once.
+     */
+    void streamOwned(Long userId, int fetchSize, Consumer<MilestoneDTO> action);
+}
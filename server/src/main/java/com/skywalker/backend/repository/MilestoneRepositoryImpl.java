@@ -0,0 +1,263 @@
+package com.skywalker.backend.repository;
+
+import com.skywalker.backend.dto.MilestoneDTO;
+import com.skywalker.backend.dto.MilestonePatch;
+import com.skywalker.backend.dto.MilestoneQuery;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+public class MilestoneRepositoryImpl implements MilestoneRepositoryCustom {
+
+    private static final String RETURNING_COLUMNS = " RETURNING m.id, m.title, m.description, m.completed,"
+            + " m.achieve_date, m.created_date, m.completed_date, m.user_id";
+
+    private static final String COMPLETE = "completed = TRUE, completed_date = COALESCE(m.completed_date, :today)";
+
+    private static final RowMapper<MilestoneDTO> MILESTONE_ROW = (rs, rowNum) -> new MilestoneDTO(
+            rs.getLong("id"),
+            rs.getString("title"),
+            rs.getString("description"),
+            rs.getBoolean("completed"),
+            rs.getObject("achieve_date", LocalDate.class),
+            rs.getObject("created_date", LocalDate.class),
+            rs.getObject("completed_date", LocalDate.class),
+            rs.getLong("user_id"));
+
+    private static final RowMapper<MilestoneChange> CHANGE_ROW = (rs, rowNum) -> new MilestoneChange(
+            MILESTONE_ROW.mapRow(rs, rowNum),
+            rs.getBoolean("was_completed"),
+            rs.getObject("was_completed_date", LocalDate.class));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<MilestoneDTO> findPage(Long userId, MilestoneQuery query, MilestoneSort sort, boolean descending,
+                                    MilestoneKeyset after, int limit) {
+        StringBuilder jpql = new StringBuilder(MilestoneRepository.DTO_SELECT + " where m.user.id = :userId");
+        Map<String, Object> params = new HashMap<>();
+        params.put("userId", userId);
+
+        // Filters
+        if (query.getCompleted() != null) {
+            jpql.append(" and m.completed = :completed");
+            params.put("completed", query.getCompleted());
+        }
+        appendRange(jpql, params, "m.achieveDate", "achieve", query.getAchieveFrom(), query.getAchieveTo());
+        appendRange(jpql, params, "m.createdDate", "created", query.getCreatedFrom(), query.getCreatedTo());
+
+        // Keyset: rows strictly after the last row of the previous page; rows without a
+        // sort value always come last, ordered by id
+        String cmp = descending ? "<" : ">";
+        String column = sort.column();
+        if (after != null) {
+            params.put("afterId", after.id());
+            if (column == null) {
+                jpql.append(" and m.id ").append(cmp).append(" :afterId");
+            } else if (after.value() == null) {
+                jpql.append(" and ").append(column).append(" is null and m.id ").append(cmp).append(" :afterId");
+            } else {
+                jpql.append(" and (").append(column).append(' ').append(cmp).append(" :afterValue")
+                        .append(" or (").append(column).append(" = :afterValue and m.id ").append(cmp).append(" :afterId)")
+                        .append(" or ").append(column).append(" is null)");
+                params.put("afterValue", after.value());
+            }
+        }
+
+        String order = descending ? " desc" : " asc";
+        jpql.append(" order by ");
+        if (column != null) {
+            jpql.append(column).append(order).append(" nulls last, ");
+        }
+        jpql.append("m.id").append(order);
+
+        TypedQuery<MilestoneDTO> typedQuery = entityManager.createQuery(jpql.toString(), MilestoneDTO.class);
+        params.forEach(typedQuery::setParameter);
+        return typedQuery.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<MilestoneSearchHit> search(Long userId, String tsQuery, MilestoneSearchKeyset after, int limit) {
+        // Title matches weigh more than description matches (see V4__milestone_search.sql)
+        String sql = "SELECT * FROM ("
+                + "   SELECT m.id, m.title, m.description, m.completed, m.achieve_date, m.created_date,"
+                + "     m.completed_date, m.user_id, ts_rank(m.search_vector, q) AS rank"
+                + "   FROM milestones m, to_tsquery('simple', :query) q"
+                + "   WHERE m.user_id = :userId AND m.search_vector @@ q) hits"
+                + (after == null ? "" : " WHERE rank < :afterRank OR (rank = :afterRank AND id < :afterId)")
+                + " ORDER BY rank DESC, id DESC LIMIT :limit";
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("query", tsQuery)
+                .addValue("userId", userId)
+                .addValue("limit", limit);
+        if (after != null) {
+            params.addValue("afterRank", after.rank(), Types.REAL)
+                    .addValue("afterId", after.id());
+        }
+        return jdbcTemplate.query(sql, params, (rs, rowNum) ->
+                new MilestoneSearchHit(MILESTONE_ROW.mapRow(rs, rowNum), rs.getFloat("rank")));
+    }
+
+    @Override
+    public Optional<MilestoneChange> patchOwned(long id, Long userId, long changeSeq, MilestonePatch patch,
+                                                LocalDate today) {
+        // An incomplete milestone never keeps a completion date, even when the patch supplies one
+        String assignments = "title = COALESCE(:title, m.title),"
+                + " description = COALESCE(:description, m.description),"
+                + " achieve_date = COALESCE(:achieveDate, m.achieve_date),"
+                + " completed = COALESCE(:completed, m.completed),"
+                + " completed_date = CASE"
+                + "   WHEN NOT COALESCE(:completed, m.completed) THEN NULL"
+                + "   WHEN CAST(:completedDate AS date) IS NOT NULL THEN CAST(:completedDate AS date)"
+                + "   WHEN m.completed_date IS NULL THEN :today"
+                + "   ELSE m.completed_date END";
+        MapSqlParameterSource params = ownedParams(id, userId, changeSeq)
+                .addValue("title", patch.getTitle(), Types.VARCHAR)
+                .addValue("description", patch.getDescription(), Types.VARCHAR)
+                .addValue("achieveDate", patch.getAchieveDate(), Types.DATE)
+                .addValue("completed", patch.getCompleted(), Types.BOOLEAN)
+                .addValue("completedDate", patch.getCompletedDate(), Types.DATE)
+                .addValue("today", today, Types.DATE);
+        return evictChanged(jdbcTemplate.query(updateOwned(assignments, "id = :id"), params, CHANGE_ROW))
+                .stream().findFirst();
+    }
+
+    @Override
+    public Optional<MilestoneChange> completeOwned(long id, Long userId, long changeSeq, LocalDate today) {
+        MapSqlParameterSource params = ownedParams(id, userId, changeSeq).addValue("today", today, Types.DATE);
+        return evictChanged(jdbcTemplate.query(updateOwned(COMPLETE, "id = :id"), params, CHANGE_ROW))
+                .stream().findFirst();
+    }
+
+    @Override
+    public Optional<MilestoneDTO> deleteOwned(long id, Long userId, long changeSeq) {
+        return evictDeleted(jdbcTemplate.query(deleteOwned("m.id = :id"), ownedParams(id, userId, changeSeq),
+                MILESTONE_ROW)).stream().findFirst();
+    }
+
+    @Override
+    public List<MilestoneChange> completeAllOwned(Collection<Long> ids, Long userId, long changeSeq,
+                                                  LocalDate today) {
+        MapSqlParameterSource params = ownedParams(ids, userId, changeSeq).addValue("today", today, Types.DATE);
+        return evictChanged(jdbcTemplate.query(updateOwned(COMPLETE, "id IN (:ids)"), params, CHANGE_ROW));
+    }
+
+    @Override
+    public List<MilestoneDTO> deleteAllOwned(Collection<Long> ids, Long userId, long changeSeq) {
+        return evictDeleted(jdbcTemplate.query(deleteOwned("m.id IN (:ids)"), ownedParams(ids, userId, changeSeq),
+                MILESTONE_ROW));
+    }
+
+    @Override
+    public List<MilestoneDTO> findChangedSince(Long userId, long since) {
+        String jpql = MilestoneRepository.DTO_SELECT
+                + " where m.user.id = :userId and m.changeSeq > :since order by m.changeSeq, m.id";
+        return entityManager.createQuery(jpql, MilestoneDTO.class)
+                .setParameter("userId", userId)
+                .setParameter("since", since)
+                .getResultList();
+    }
+
+    @Override
+    public List<Long> findDeletedSince(Long userId, long since) {
+        String sql = "SELECT milestone_id FROM milestone_tombstones"
+                + " WHERE user_id = :userId AND change_seq > :since ORDER BY change_seq, milestone_id";
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("since", since);
+        return jdbcTemplate.queryForList(sql, params, Long.class);
+    }
+
+    @Override
+    public void streamOwned(Long userId, int fetchSize, Consumer<MilestoneDTO> action) {
+        String sql = "SELECT id, title, description, completed, achieve_date, created_date, completed_date, user_id"
+                + " FROM milestones WHERE user_id = ? ORDER BY id";
+        jdbcTemplate.getJdbcTemplate().query(con -> {
+            PreparedStatement statement = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setLong(1, userId);
+            return statement;
+        }, (RowCallbackHandler) rs -> action.accept(MILESTONE_ROW.mapRow(rs, rs.getRow())));
+    }
+
+    /**
+     * UPDATE of the user's rows matching {@code idPredicate} that also returns each row's
+     * completion state from before the update. The rows are locked while the old state is
+     * read, so concurrent writers cannot slip in between.
+     */
+    private static String updateOwned(String assignments, String idPredicate) {
+        return "UPDATE milestones m SET " + assignments
+                + ", version = m.version + 1, updated_at = now(), change_seq = :changeSeq"
+                + " FROM (SELECT id, completed AS was_completed, completed_date AS was_completed_date"
+                + "       FROM milestones WHERE " + idPredicate + " AND user_id = :userId FOR UPDATE) prev"
+                + " WHERE m.id = prev.id"
+                + RETURNING_COLUMNS + ", prev.was_completed, prev.was_completed_date";
+    }
+
+    private List<MilestoneChange> evictChanged(List<MilestoneChange> changes) {
+        MilestoneCacheEviction.evict(entityManager, changes.stream().map(change -> change.milestone().getId()).toList());
+        return changes;
+    }
+
+    private List<MilestoneDTO> evictDeleted(List<MilestoneDTO> deleted) {
+        MilestoneCacheEviction.evict(entityManager, deleted.stream().map(MilestoneDTO::getId).toList());
+        return deleted;
+    }
+
+    // DELETE of the user's rows matching {@code idPredicate} that leaves a tombstone for each removed row
+    private static String deleteOwned(String idPredicate) {
+        return "WITH deleted AS ("
+                + "   DELETE FROM milestones m WHERE " + idPredicate + " AND m.user_id = :userId" + RETURNING_COLUMNS + "),"
+                + " tombstones AS ("
+                + "   INSERT INTO milestone_tombstones (milestone_id, user_id, change_seq, deleted_at)"
+                + "   SELECT id, user_id, :changeSeq, now() FROM deleted)"
+                + " SELECT * FROM deleted";
+    }
+
+    private static MapSqlParameterSource ownedParams(long id, Long userId, long changeSeq) {
+        return new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("userId", userId)
+                .addValue("changeSeq", changeSeq);
+    }
+
+    private static MapSqlParameterSource ownedParams(Collection<Long> ids, Long userId, long changeSeq) {
+        return new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("userId", userId)
+                .addValue("changeSeq", changeSeq);
+    }
+
+    private static void appendRange(StringBuilder jpql, Map<String, Object> params, String column,
+                                    String name, Object from, Object to) {
+        if (from != null) {
+            jpql.append(" and ").append(column).append(" >= :").append(name).append("From");
+            params.put(name + "From", from);
+        }
+        if (to != null) {
+            jpql.append(" and ").append(column).append(" <= :").append(name).append("To");
+            params.put(name + "To", to);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.skywalker.backend.repository;
+
+import com.skywalker.backend.model.MilestoneRollup;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Repository
+@RequiredArgsConstructor
+public class MilestoneRollupRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Locks the user's rollup row until the end of the transaction, creating it if missing.
+     * Returns true when the row still has to be rebuilt from the milestones table.
+     */
+    public boolean lockForUpdate(Long userId) {
+        String sql = "INSERT INTO milestone_rollups (user_id, total_count, completed_count, needs_rebuild, updated_at,"
+                + " version, modified_at)"
+                + " VALUES (:userId, 0, 0, TRUE, now(), 0, clock_timestamp())"
+                + " ON CONFLICT (user_id) DO UPDATE SET updated_at = now()"
+                + " RETURNING needs_rebuild";
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, userParams(userId), Boolean.class));
+    }
+
+    /**
+     * Same as {@link #lockForUpdate(Long)}, and also bumps the user's collection version because
+     * the caller is about to write milestone rows. The wall-clock time is used for
+     * {@code modified_at} since writers queue on the lock after their transaction started.
+     * The new version doubles as the change sequence stamped on every row the caller writes.
+     */
+    public WriteLock lockForWrite(Long userId) {
+        String sql = "INSERT INTO milestone_rollups (user_id, total_count, completed_count, needs_rebuild, updated_at,"
+                + " version, modified_at)"
+                + " VALUES (:userId, 0, 0, TRUE, now(), 1, clock_timestamp())"
+                + " ON CONFLICT (user_id) DO UPDATE SET updated_at = now(),"
+                + " version = milestone_rollups.version + 1, modified_at = clock_timestamp()"
+                + " RETURNING needs_rebuild, version";
+        return jdbcTemplate.queryForObject(sql, userParams(userId), (rs, rowNum) ->
+                new WriteLock(rs.getBoolean("needs_rebuild"), rs.getLong("version")));
+    }
+
+    public void addCounts(Long userId, long total, long completed) {
+        String sql = "UPDATE milestone_rollups SET total_count = total_count + :total,"
+                + " completed_count = completed_count + :completed"
+                + " WHERE user_id = :userId";
+        jdbcTemplate.update(sql, userParams(userId)
+                .addValue("total", total)
+                .addValue("completed", completed));
+    }
+
+    public void addCompletions(Long userId, Map<LocalDate, Long> completionsByDay) {
+        String sql = "INSERT INTO milestone_completion_days (user_id, day, completions)"
+                + " VALUES (:userId, :day, :completions)"
+                + " ON CONFLICT (user_id, day) DO UPDATE"
+                + " SET completions = milestone_completion_days.completions + EXCLUDED.completions";
+        MapSqlParameterSource[] batch = completionsByDay.entrySet().stream()
+                .map(e -> userParams(userId)
+                        .addValue("day", e.getKey(), Types.DATE)
+                        .addValue("completions", e.getValue()))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(sql, batch);
+    }
+
+    // Recomputes the user's rollup and daily completions; the caller must hold the row lock
+    public void rebuild(Long userId) {
+        MapSqlParameterSource params = userParams(userId);
+        jdbcTemplate.update("UPDATE milestone_rollups r SET total_count = c.total, completed_count = c.completed,"
+                + " needs_rebuild = FALSE, updated_at = now()"
+                + " FROM (SELECT COUNT(*) AS total, COUNT(*) FILTER (WHERE completed) AS completed"
+                + "       FROM milestones WHERE user_id = :userId) c"
+                + " WHERE r.user_id = :userId", params);
+        jdbcTemplate.update("DELETE FROM milestone_completion_days WHERE user_id = :userId", params);
+        jdbcTemplate.update("INSERT INTO milestone_completion_days (user_id, day, completions)"
+                + " SELECT user_id, completed_date, COUNT(*) FROM milestones"
+                + " WHERE user_id = :userId AND completed AND completed_date IS NOT NULL"
+                + " GROUP BY user_id, completed_date", params);
+    }
+
+    public Optional<MilestoneRollup> findByUserId(Long userId) {
+        String sql = "SELECT user_id, total_count, completed_count, needs_rebuild, updated_at, version, modified_at"
+                + " FROM milestone_rollups WHERE user_id = :userId";
+        return jdbcTemplate.query(sql, userParams(userId), (rs, rowNum) -> {
+            MilestoneRollup rollup = new MilestoneRollup();
+            rollup.setUserId(rs.getLong("user_id"));
+            rollup.setTotalCount(rs.getLong("total_count"));
+            rollup.setCompletedCount(rs.getLong("completed_count"));
+            rollup.setNeedsRebuild(rs.getBoolean("needs_rebuild"));
+            Timestamp updatedAt = rs.getTimestamp("updated_at");
+            rollup.setUpdatedAt(updatedAt != null ? updatedAt.toInstant() : null);
+            rollup.setVersion(rs.getLong("version"));
+            Timestamp modifiedAt = rs.getTimestamp("modified_at");
+            rollup.setModifiedAt(modifiedAt != null ? modifiedAt.toInstant() : null);
+            return rollup;
+        }).stream().findFirst();
+    }
+
+    // Oldest change cursor the user's tombstones can still answer; 0 when none have been purged
+    public long findTombstoneFloor(Long userId) {
+        String sql = "SELECT tombstone_floor FROM milestone_rollups WHERE user_id = :userId";
+        return jdbcTemplate.queryForList(sql, userParams(userId), Long.class).stream().findFirst().orElse(0L);
+    }
+
+    /**
+     * Deletes tombstones recorded before {@code cutoff} and raises each affected user's
+     * tombstone floor to the newest purged change, so older cursors are known to be incomplete.
+     */
+    public int purgeTombstones(Instant cutoff) {
+        String sql = "WITH purged AS ("
+                + "   DELETE FROM milestone_tombstones WHERE deleted_at < :cutoff RETURNING user_id, change_seq)"
+                + " UPDATE milestone_rollups r SET tombstone_floor = GREATEST(r.tombstone_floor, p.floor)"
+                + " FROM (SELECT user_id, MAX(change_seq) AS floor, COUNT(*) AS purged FROM purged GROUP BY user_id) p"
+                + " WHERE r.user_id = p.user_id"
+                + " RETURNING p.purged";
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("cutoff", Timestamp.from(cutoff), Types.TIMESTAMP);
+        return jdbcTemplate.queryForList(sql, params, Long.class).stream().mapToInt(Long::intValue).sum();
+    }
+
+    // Collection version of the user's milestones; a single primary key lookup
+    public Optional<MilestoneVersion> findVersion(Long userId) {
+        String sql = "SELECT version, modified_at FROM milestone_rollups WHERE user_id = :userId";
+        return jdbcTemplate.query(sql, userParams(userId), (rs, rowNum) -> new MilestoneVersion(
+                userId,
+                rs.getLong("version"),
+                rs.getTimestamp("modified_at").toInstant())).stream().findFirst();
+    }
+
+    // Same shape as MilestoneStatsRepository#countCompletionsPer, read from the daily rollup
+    public Map<LocalDate, Long> sumCompletionsPer(String unit, Long userId, LocalDate from) {
+        String sql = "SELECT CAST(date_trunc(:unit, day) AS date) AS period, SUM(completions) AS completions"
+                + " FROM milestone_completion_days"
+                + " WHERE user_id = :userId AND day >= :from"
+                + " GROUP BY 1 ORDER BY 1";
+        MapSqlParameterSource params = userParams(userId)
+                .addValue("unit", unit)
+                .addValue("from", from, Types.DATE);
+
+        Map<LocalDate, Long> counts = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, params, rs -> {
+            counts.put(rs.getObject("period", LocalDate.class), rs.getLong("completions"));
+        });
+        return counts;
+    }
+
+    // Every user that has milestones or a rollup row
+    public List<Long> findUserIds() {
+        return jdbcTemplate.getJdbcTemplate().queryForList(
+                "SELECT user_id FROM milestone_rollups UNION SELECT DISTINCT user_id FROM milestones", Long.class);
+    }
+
+    public record WriteLock(boolean needsRebuild, long version) {
+    }
+
+    private static MapSqlParameterSource userParams(Long userId) {
+        return new MapSqlParameterSource().addValue("userId", userId);
+    }
+}
@@ -0,0 +1,7 @@
+package com.skywalker.backend.repository;
+
+import com.skywalker.backend.dto.MilestoneDTO;
+
+// Search result with its relevance, which the next page's cursor continues from
+public record MilestoneSearchHit(MilestoneDTO milestone, float rank) {
+}
@@ -0,0 +1,43 @@
+package com.skywalker.backend.repository;
+
+import com.skywalker.backend.dto.MilestoneDTO;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Optional;
+
+// Orderings supported by keyset pagination; id is always the tie-breaker
+public enum MilestoneSort {
+
+    ID("id", null),
+    ACHIEVE_DATE("achieveDate", "m.achieveDate"),
+    CREATED_DATE("createdDate", "m.createdDate");
+
+    private final String parameter;
+    private final String column;
+
+    MilestoneSort(String parameter, String column) {
+        this.parameter = parameter;
+        this.column = column;
+    }
+
+    // JPQL path of the sort column, or null when sorting by id alone
+    public String column() {
+        return column;
+    }
+
+    // Sort column value of a row, used to build the cursor of the next page
+    public LocalDate valueOf(MilestoneDTO milestone) {
+        return switch (this) {
+            case ID -> null;
+            case ACHIEVE_DATE -> milestone.getAchieveDate();
+            case CREATED_DATE -> milestone.getCreatedDate();
+        };
+    }
+
+    public static Optional<MilestoneSort> fromParameter(String parameter) {
+        return Arrays.stream(values())
+                .filter(sort -> sort.parameter.equals(parameter))
+                .findFirst();
+    }
+}
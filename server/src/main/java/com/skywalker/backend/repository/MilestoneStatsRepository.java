@@ -0,0 +1,82 @@
+package com.skywalker.backend.repository;
+
+import com.skywalker.backend.dto.MilestoneStatsDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Aggregate queries for the dashboard; every query is scoped to one user's rows
+@Repository
+@RequiredArgsConstructor
+public class MilestoneStatsRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    // Fills total, completed, overdue and upcoming in a single pass over the user's rows
+    public MilestoneStatsDTO countByStatus(Long userId, LocalDate today, LocalDate upcomingEnd) {
+        String sql = "SELECT COUNT(*) AS total,"
+                + " COUNT(*) FILTER (WHERE completed) AS completed,"
+                + " COUNT(*) FILTER (WHERE NOT completed AND achieve_date < :today) AS overdue,"
+                + " COUNT(*) FILTER (WHERE NOT completed AND achieve_date BETWEEN :today AND :upcomingEnd) AS upcoming"
+                + " FROM milestones WHERE user_id = :userId";
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("today", today, Types.DATE)
+                .addValue("upcomingEnd", upcomingEnd, Types.DATE);
+
+        return jdbcTemplate.queryForObject(sql, params, (rs, rowNum) -> {
+            MilestoneStatsDTO stats = new MilestoneStatsDTO();
+            stats.setTotal(rs.getLong("total"));
+            stats.setCompleted(rs.getLong("completed"));
+            stats.setOverdue(rs.getLong("overdue"));
+            stats.setUpcoming(rs.getLong("upcoming"));
+            return stats;
+        });
+    }
+
+    // Fills overdue and upcoming only; reads just the user's pending rows that are due by upcomingEnd
+    public MilestoneStatsDTO countDue(Long userId, LocalDate today, LocalDate upcomingEnd) {
+        String sql = "SELECT COUNT(*) FILTER (WHERE achieve_date < :today) AS overdue,"
+                + " COUNT(*) FILTER (WHERE achieve_date >= :today) AS upcoming"
+                + " FROM milestones"
+                + " WHERE user_id = :userId AND NOT completed AND achieve_date <= :upcomingEnd";
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("today", today, Types.DATE)
+                .addValue("upcomingEnd", upcomingEnd, Types.DATE);
+
+        return jdbcTemplate.queryForObject(sql, params, (rs, rowNum) -> {
+            MilestoneStatsDTO stats = new MilestoneStatsDTO();
+            stats.setOverdue(rs.getLong("overdue"));
+            stats.setUpcoming(rs.getLong("upcoming"));
+            return stats;
+        });
+    }
+
+    /**
+     * Completions per period since {@code from}, keyed by period start. {@code unit} is a
+     * Postgres date_trunc unit ("week" or "month"); periods without completions are absent.
+     */
+    public Map<LocalDate, Long> countCompletionsPer(String unit, Long userId, LocalDate from) {
+        String sql = "SELECT CAST(date_trunc(:unit, completed_date) AS date) AS period, COUNT(*) AS completions"
+                + " FROM milestones"
+                + " WHERE user_id = :userId AND completed AND completed_date >= :from"
+                + " GROUP BY 1 ORDER BY 1";
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("unit", unit)
+                .addValue("userId", userId)
+                .addValue("from", from, Types.DATE);
+
+        Map<LocalDate, Long> counts = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, params, rs -> {
+            counts.put(rs.getObject("period", LocalDate.class), rs.getLong("completions"));
+        });
+        return counts;
+    }
+}
@@ -0,0 +1,15 @@
+package com.skywalker.backend.repository;
+
+import java.time.Instant;
+
+/**
+ * Version of one user's milestone collection, bumped by every write to it. Used as the
+ * validator for conditional GETs of the collection and of single milestones.
+ */
+public record MilestoneVersion(Long userId, long version, Instant modifiedAt) {
+
+    // Weak: the same version may be served with different content encodings
+    public String etag() {
+        return "W/\"" + userId + "-" + version + "\"";
+    }
+}
@@ -0,0 +1,25 @@
+package com.skywalker.backend.repository;
+
+import com.skywalker.backend.event.UserChangedEvent;
+import com.skywalker.backend.model.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+// JPA listener on User: every write, whichever code path saved it, announces the change
+@Component
+@RequiredArgsConstructor
+public class UserChangeListener {
+
+    private final ApplicationEventPublisher events;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(User user) {
+        events.publishEvent(new UserChangedEvent(user.getId(), user.getEmail()));
+    }
+}
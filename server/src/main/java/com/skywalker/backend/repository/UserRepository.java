@@ -3,10 +3,7 @@ package com.skywalker.backend.repository;
 import com.skywalker.backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-import java.util.Optional;
-
-public interface UserRepository extends JpaRepository<User,Long> {
+// findById and findByEmail are served from the User entity's second-level cache regions
+public interface UserRepository extends JpaRepository<User,Long>, UserRepositoryCustom {
     boolean existsByEmail(String email);
-
-    Optional<User> findByEmail(String email);
 }
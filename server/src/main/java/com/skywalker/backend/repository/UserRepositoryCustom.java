@@ -0,0 +1,11 @@
+package com.skywalker.backend.repository;
+
+import com.skywalker.backend.model.User;
+
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    // Natural id lookup, resolved from the second-level cache when the email has been seen before
+    Optional<User> findByEmail(String email);
+}
@@ -0,0 +1,15 @@
+package com.skywalker.backend.security;
+
+import java.security.Principal;
+
+/**
+ * Principal built from verified JWT claims, so authenticated requests never need to load
+ * the {@link com.skywalker.backend.model.User} row just to know who is calling.
+ */
+public record AuthenticatedUser(Long id, String email) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
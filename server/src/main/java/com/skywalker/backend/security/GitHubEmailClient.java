@@ -0,0 +1,109 @@
+package com.skywalker.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.skywalker.backend.config.CircuitBreaker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.net.http.HttpClient;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Looks up the primary verified email of a GitHub account, for accounts that keep their email
+ * private. One pooled HTTP client with strict timeouts is shared by all logins, repeated
+ * failures open a circuit breaker so logins fail fast while GitHub is unhealthy, and results
+ * are cached per GitHub account id for a short time.
+ */
+@Slf4j
+@Component
+public class GitHubEmailClient {
+
+    private final RestClient restClient;
+    private final CircuitBreaker circuitBreaker;
+    private final Cache<String, String> emailsByProviderId;
+
+    public GitHubEmailClient(@Value("${app.github.api-url:https://api.github.com}") String apiUrl,
+                             @Value("${app.github.connect-timeout:2s}") Duration connectTimeout,
+                             @Value("${app.github.read-timeout:3s}") Duration readTimeout,
+                             @Value("${app.github.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                             @Value("${app.github.circuit-breaker.open-duration:30s}") Duration openDuration,
+                             @Value("${app.github.email-cache-ttl:10m}") Duration cacheTtl) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+
+        this.restClient = RestClient.builder()
+                .baseUrl(apiUrl)
+                .requestFactory(requestFactory)
+                .defaultHeader("Accept", "application/vnd.github+json")
+                .build();
+        this.circuitBreaker = new CircuitBreaker("github", failureThreshold, openDuration, Clock.systemUTC());
+        this.emailsByProviderId = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(cacheTtl)
+                .build();
+    }
+
+    // Empty when the account has no verified primary email or GitHub could not be reached
+    public Optional<String> fetchPrimaryEmail(String providerId, String accessToken) {
+        if (providerId != null) {
+            String cached = emailsByProviderId.getIfPresent(providerId);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+        }
+
+        if (!circuitBreaker.tryAcquire()) {
+            log.warn("GitHub email lookup skipped, circuit open");
+            return Optional.empty();
+        }
+
+        List<Map<String, Object>> emails;
+        boolean healthy = false;
+        try {
+            emails = restClient.get()
+                    .uri("/user/emails")
+                    .headers(headers -> headers.setBearerAuth(accessToken))
+                    .retrieve()
+                    .body(new ParameterizedTypeReference<>() {});
+            healthy = true;
+        } catch (HttpClientErrorException e) {
+            // GitHub answered; a rejected token says nothing about its health
+            healthy = true;
+            log.error("GitHub email lookup rejected: {}", e.getStatusCode());
+            return Optional.empty();
+        } catch (RestClientException e) {
+            log.error("GitHub email lookup failed: {}", e.getMessage());
+            return Optional.empty();
+        } finally {
+            // Reported on every exit, unexpected exceptions included, so a probe never stays outstanding
+            if (healthy) {
+                circuitBreaker.onSuccess();
+            } else {
+                circuitBreaker.onFailure();
+            }
+        }
+
+        Optional<String> email = emails == null ? Optional.empty() : emails.stream()
+                .filter(e -> Boolean.TRUE.equals(e.get("primary")) && Boolean.TRUE.equals(e.get("verified")))
+                .map(e -> (String) e.get("email"))
+                .findFirst();
+        if (providerId != null) {
+            email.ifPresent(value -> emailsByProviderId.put(providerId, value));
+        }
+        return email;
+    }
+}
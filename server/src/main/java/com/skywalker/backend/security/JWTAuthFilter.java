@@ -1,5 +1,6 @@
 package com.skywalker.backend.security;
 
+import com.skywalker.backend.model.User;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,17 +8,22 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
 public class JWTAuthFilter extends OncePerRequestFilter {
 
+    private static final String STREAM_PATH = "/api/milestones/stream";
+
     private final JWTUtils jwtUtils;
     private final CustomUserDetailsService customUserDetailsService;
 
@@ -27,21 +33,17 @@ public class JWTAuthFilter extends OncePerRequestFilter {
                                     FilterChain filterChain)
             throws ServletException, IOException {
 
-        final String authHeader = request.getHeader("Authorization");
-        String jwtToken = null;
-        String userEmail = null;
-
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            jwtToken = authHeader.substring(7);
-            userEmail = jwtUtils.extractUserName(jwtToken);
-        }
+        final String token = resolveToken(request);
 
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = customUserDetailsService.loadUserByUsername(userEmail);
+        if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // Signature and expiry are checked once; hot tokens come straight from the cache
+            Optional<VerifiedToken> verified = jwtUtils.verifyToken(token)
+                    .filter(claims -> Objects.equals(claims.scope(), requiredScope(request)));
 
-            if (jwtUtils.isValidToken(jwtToken, userDetails)) {
+            if (verified.isPresent() && !verified.get().isExpired(Instant.now())) {
+                AuthenticatedUser principal = toPrincipal(verified.get());
                 UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                        new UsernamePasswordAuthenticationToken(principal, null, Collections.emptyList());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
@@ -49,4 +51,35 @@ public class JWTAuthFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    private static String resolveToken(HttpServletRequest request) {
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return authHeader.substring(7);
+        }
+        // Browsers' EventSource cannot set headers, so the event stream takes a stream ticket as a parameter
+        if (isStreamTicketRequest(request)) {
+            return request.getParameter("ticket");
+        }
+        return null;
+    }
+
+    // Session tokens never ride in URLs, and stream tickets open nothing but the stream
+    private static String requiredScope(HttpServletRequest request) {
+        return isStreamTicketRequest(request) ? JWTUtils.STREAM_SCOPE : null;
+    }
+
+    private static boolean isStreamTicketRequest(HttpServletRequest request) {
+        return STREAM_PATH.equals(request.getRequestURI()) && "GET".equals(request.getMethod())
+                && request.getHeader("Authorization") == null;
+    }
+
+    private AuthenticatedUser toPrincipal(VerifiedToken token) {
+        if (token.userId() != null) {
+            return new AuthenticatedUser(token.userId(), token.subject());
+        }
+        // Tokens issued before the user id claim existed still need one lookup
+        User user = (User) customUserDetailsService.loadUserByUsername(token.subject());
+        return new AuthenticatedUser(user.getId(), user.getEmail());
+    }
 }
@@ -1,71 +1,155 @@
 package com.skywalker.backend.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.skywalker.backend.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
-import java.util.function.Function;
+import java.util.Optional;
 
 @Service
 @Slf4j
 public class JWTUtils {
 
     private static final long EXPIRATION_TIME = 1000L * 60 * 60 * 24 ; // 24 hr
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String SCOPE_CLAIM = "scope";
+    public static final String STREAM_SCOPE = "milestone-stream";
     private SecretKey key;
+    private JwtParser jwtParser;
+
+    // Verified tokens keyed by SHA-256 digest, so repeat requests skip signature verification
+    private Cache<String, VerifiedToken> verifiedTokens;
 
     @Value("${jwt.secret}")
     private String secretString;
 
+    @Value("${jwt.cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    @Value("${jwt.stream-ticket-ttl:60s}")
+    private Duration streamTicketTtl = Duration.ofSeconds(60);
+
     @PostConstruct
     public void init() {
         byte[] keyBytes = Decoders.BASE64.decode(secretString);
         this.key = Keys.hmacShaKeyFor(keyBytes);
+        this.jwtParser = Jwts.parser().verifyWith(key).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new TokenExpiry())
+                .build();
         log.info("JWT Secret Key Initialized");
     }
 
-    public String generateToken(UserDetails userDetails) {
+    public String generateToken(User user) {
         return Jwts.builder()
-                .subject(userDetails.getUsername())
+                .subject(user.getEmail())
+                .claim(USER_ID_CLAIM, user.getId())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
                 .signWith(key)
                 .compact();
     }
 
-    public String extractUserName(String token) {
-        return extractClaims(token, Claims::getSubject);
+    /**
+     * Token that only opens the caller's milestone event stream. It travels in the URL, so it
+     * expires quickly and the filter refuses it as a bearer token.
+     */
+    public String generateStreamTicket(AuthenticatedUser user) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .subject(user.email())
+                .claim(USER_ID_CLAIM, user.id())
+                .claim(SCOPE_CLAIM, STREAM_SCOPE)
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + streamTicketTtl.toMillis()))
+                .signWith(key)
+                .compact();
     }
 
-    public boolean isValidToken(String token, UserDetails userDetails) {
-        String username = extractUserName(token);
-        return username != null && username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+    public Duration getStreamTicketTtl() {
+        return streamTicketTtl;
     }
 
-    private boolean isTokenExpired(String token) {
-        Date expiration = extractClaims(token, Claims::getExpiration);
-        return expiration != null && expiration.before(new Date());
+    /**
+     * Verifies the token signature and expiry once and returns its claims. Results are
+     * cached until the token expires; an empty result means the token must be rejected.
+     */
+    public Optional<VerifiedToken> verifyToken(String token) {
+        String digest = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        VerifiedToken verified = parseToken(token);
+        if (verified == null) {
+            return Optional.empty();
+        }
+        verifiedTokens.put(digest, verified);
+        return Optional.of(verified);
     }
 
-    private <T> T extractClaims(String token, Function<Claims, T> claimsResolver) {
+    private VerifiedToken parseToken(String token) {
         try {
-            return claimsResolver.apply(
-                    Jwts.parser()
-                            .verifyWith(key)
-                            .build()
-                            .parseSignedClaims(token)
-                            .getPayload()
-            );
+            Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+            if (claims.getSubject() == null || claims.getExpiration() == null) {
+                return null;
+            }
+            Number userId = claims.get(USER_ID_CLAIM, Number.class);
+            return new VerifiedToken(
+                    claims.getSubject(),
+                    userId != null ? userId.longValue() : null,
+                    claims.getExpiration().toInstant(),
+                    claims.get(SCOPE_CLAIM, String.class));
         } catch (Exception e) {
             log.error("Invalid JWT Token: {}", e.getMessage());
             return null;
         }
     }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String digest, VerifiedToken token, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), token.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String digest, VerifiedToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(digest, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String digest, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -0,0 +1,59 @@
+package com.skywalker.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed-window limits on login attempts per client address and per email, checked before any
+ * password is hashed. Counters live in bounded caches that expire with their window, so a
+ * spray of distinct addresses or emails cannot grow memory without limit.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final int maxPerAddress;
+    private final int maxPerEmail;
+    private final Duration window;
+    private final Cache<String, AtomicInteger> attemptsByAddress;
+    private final Cache<String, AtomicInteger> attemptsByEmail;
+    private final Counter limited;
+
+    public LoginRateLimiter(@Value("${app.auth.login-limit.per-address:20}") int maxPerAddress,
+                            @Value("${app.auth.login-limit.per-email:10}") int maxPerEmail,
+                            @Value("${app.auth.login-limit.window:1m}") Duration window,
+                            MeterRegistry meterRegistry) {
+        this.maxPerAddress = maxPerAddress;
+        this.maxPerEmail = maxPerEmail;
+        this.window = window;
+        this.attemptsByAddress = Caffeine.newBuilder().maximumSize(100_000).expireAfterWrite(window).build();
+        this.attemptsByEmail = Caffeine.newBuilder().maximumSize(100_000).expireAfterWrite(window).build();
+        this.limited = Counter.builder("app.auth.login.rate-limited").register(meterRegistry);
+    }
+
+    // Counts the attempt and returns false once either limit is exceeded for the current window
+    public boolean tryAcquire(String address, String email) {
+        boolean addressAllowed = count(attemptsByAddress, address) <= maxPerAddress;
+        boolean emailAllowed = email == null || count(attemptsByEmail, email.trim().toLowerCase(Locale.ROOT)) <= maxPerEmail;
+        if (addressAllowed && emailAllowed) {
+            return true;
+        }
+        limited.increment();
+        return false;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    private static int count(Cache<String, AtomicInteger> attempts, String key) {
+        return attempts.get(key, k -> new AtomicInteger()).incrementAndGet();
+    }
+}
@@ -7,11 +7,6 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
@@ -19,11 +14,9 @@ import org.springframework.security.oauth2.client.authentication.OAuth2Authentic
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.security.web.authentication.SimpleUrlAuthenticationSuccessHandler;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.io.IOException;
-import java.util.List;
 import java.util.Map;
 
 @Slf4j
@@ -34,6 +27,7 @@ public class OAuth2AuthenticationSuccessHandler extends SimpleUrlAuthenticationS
     private final JWTUtils jwtUtils;
     private final UserRepository userRepository;
     private final OAuth2AuthorizedClientService authorizedClientService;
+    private final GitHubEmailClient gitHubEmailClient;
 
 
     @Value("${oauth2.frontend-redirect}")
@@ -46,9 +40,9 @@ public class OAuth2AuthenticationSuccessHandler extends SimpleUrlAuthenticationS
         OAuth2User oAuth2User = oauthToken.getPrincipal();
         String registrationId = oauthToken.getAuthorizedClientRegistrationId();
 
-        String email = extractEmail(oAuth2User, registrationId, authentication);
-        String name = extractName(oAuth2User, registrationId);
         String providerId = extractProviderId(oAuth2User, registrationId);
+        String email = extractEmail(oAuth2User, registrationId, providerId, authentication);
+        String name = extractName(oAuth2User, registrationId);
         String imageUrl = extractImageUrl(oAuth2User, registrationId);
 
         if (email == null) {
@@ -109,7 +103,8 @@ public class OAuth2AuthenticationSuccessHandler extends SimpleUrlAuthenticationS
         return userRepository.save(newUser);
     }
 
-    private String extractEmail(OAuth2User oAuth2User, String registrationId, Authentication authentication) {
+    private String extractEmail(OAuth2User oAuth2User, String registrationId, String providerId,
+                                Authentication authentication) {
         Map<String, Object> attributes = oAuth2User.getAttributes();
 
         if ("google".equals(registrationId)) {
@@ -126,7 +121,8 @@ public class OAuth2AuthenticationSuccessHandler extends SimpleUrlAuthenticationS
 
             if (client == null) return null;
 
-            return fetchGitHubPrimaryEmail(client.getAccessToken().getTokenValue());
+            return gitHubEmailClient.fetchPrimaryEmail(providerId, client.getAccessToken().getTokenValue())
+                    .orElse(null);
         }
 
         return null;
@@ -170,29 +166,4 @@ public class OAuth2AuthenticationSuccessHandler extends SimpleUrlAuthenticationS
         }
         return null;
     }
-    private String fetchGitHubPrimaryEmail(String accessToken) {
-        RestTemplate restTemplate = new RestTemplate();
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setBearerAuth(accessToken);
-        HttpEntity<Void> entity = new HttpEntity<>(headers);
-
-        ResponseEntity<List<Map<String, Object>>> response = restTemplate.exchange(
-                "https://api.github.com/user/emails",
-                HttpMethod.GET,
-                entity,
-                new ParameterizedTypeReference<List<Map<String, Object>>>() {}
-        );
-
-        List<Map<String, Object>> emails = response.getBody();
-        if (emails == null) return null;
-
-        return emails.stream()
-                .filter(e -> Boolean.TRUE.equals(e.get("primary")) && Boolean.TRUE.equals(e.get("verified")))
-                .map(e -> (String) e.get("email"))
-                .findFirst()
-                .orElse(null);
-    }
-
-
 }
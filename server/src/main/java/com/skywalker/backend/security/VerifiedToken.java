@@ -0,0 +1,16 @@
+package com.skywalker.backend.security;
+
+import java.time.Instant;
+
+/**
+ * Claims of a JWT whose signature has already been verified. Produced once per token
+ * by {@link JWTUtils#verifyToken(String)} and safe to share between requests.
+ * {@code userId} is null for tokens issued before the user id claim was added, and
+ * {@code scope} is null for session tokens; scoped tokens are only valid where that scope is asked for.
+ */
+public record VerifiedToken(String subject, Long userId, Instant expiresAt, String scope) {
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
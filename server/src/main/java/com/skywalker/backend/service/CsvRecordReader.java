@@ -0,0 +1,109 @@
+package com.skywalker.backend.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 reader: one record at a time, with quoted fields that may contain commas,
+ * doubled quotes and line breaks. Accepts LF as well as CRLF line ends. Records longer than
+ * {@code maxRecordLength} characters are refused, so a malformed file cannot exhaust memory.
+ */
+class CsvRecordReader {
+
+    private final Reader reader;
+    private final int maxRecordLength;
+    private int line = 1;
+    private int recordLine;
+    private int pending = -2;
+
+    CsvRecordReader(Reader reader, int maxRecordLength) {
+        this.reader = reader;
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    // Line on which the last record returned by next() started
+    int getRecordLine() {
+        return recordLine;
+    }
+
+    /**
+     * The next record, or null at the end of input. Throws {@link IllegalArgumentException} on
+     * a quoted field that never closes or a record over the length limit.
+     */
+    List<String> next() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        recordLine = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean inQuotes = false;
+        int length = 0;
+        while (true) {
+            if (++length > maxRecordLength) {
+                throw new IllegalArgumentException("Record on line " + recordLine + " is longer than "
+                        + maxRecordLength + " characters");
+            }
+            if (inQuotes) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Unterminated quoted field starting on line " + recordLine);
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        inQuotes = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == ',') {
+                fields.add(value(field, quoted));
+                field.setLength(0);
+                quoted = false;
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    int next = read();
+                    if (next != '\n') {
+                        pending = next;
+                    }
+                }
+                if (c != -1) {
+                    line++;
+                }
+                fields.add(value(field, quoted));
+                return fields;
+            } else if (c == '"' && field.isEmpty() && !quoted) {
+                quoted = true;
+                inQuotes = true;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    // An empty unquoted field is a missing value; "" is an empty string
+    private static String value(StringBuilder field, boolean quoted) {
+        return field.isEmpty() && !quoted ? null : field.toString();
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return reader.read();
+    }
+}
@@ -0,0 +1,123 @@
+package com.skywalker.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.skywalker.backend.dto.MilestoneDTO;
+import com.skywalker.backend.repository.MilestoneRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Full export of a user's milestones. Rows go from a JDBC cursor straight to the response
+ * stream, one at a time and without entities, so memory stays flat however many milestones
+ * the user has. The read-only transaction (and its connection) lasts as long as the download.
+ */
+@Service
+public class MilestoneExportService {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final MilestoneRepository repository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    @Value("${milestones.export.fetch-size:500}")
+    private int fetchSize;
+
+    public MilestoneExportService(MilestoneRepository repository, PlatformTransactionManager transactionManager,
+                                  ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    public void export(Long userId, MilestoneFileFormat format, boolean gzip, OutputStream out) throws IOException {
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(compressed != null ? compressed : out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try {
+                    if (format == MilestoneFileFormat.CSV) {
+                        writeCsv(userId, writer);
+                    } else {
+                        writeNdjson(userId, writer);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        if (compressed != null) {
+            compressed.finish();
+        }
+    }
+
+    private void writeCsv(Long userId, Writer writer) throws IOException {
+        writer.write("id,title,description,completed,achieveDate,createdDate,completedDate\r\n");
+        repository.streamOwned(userId, fetchSize, milestone -> {
+            try {
+                writer.write(Long.toString(milestone.getId()));
+                writer.write(',');
+                writer.write(csvField(milestone.getTitle()));
+                writer.write(',');
+                writer.write(csvField(milestone.getDescription()));
+                writer.write(',');
+                writer.write(Boolean.toString(milestone.isCompleted()));
+                writer.write(',');
+                writer.write(csvDate(milestone.getAchieveDate()));
+                writer.write(',');
+                writer.write(csvDate(milestone.getCreatedDate()));
+                writer.write(',');
+                writer.write(csvDate(milestone.getCompletedDate()));
+                writer.write("\r\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    // One JSON object per line, in the same shape as GET /api/milestones
+    private void writeNdjson(Long userId, Writer writer) {
+        ObjectWriter json = objectMapper.writerFor(MilestoneDTO.class);
+        repository.streamOwned(userId, fetchSize, milestone -> {
+            try {
+                writer.write(json.writeValueAsString(milestone));
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    // RFC 4180: quoted only when needed, with embedded quotes doubled
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String csvDate(LocalDate date) {
+        return date == null ? "" : date.toString();
+    }
+}
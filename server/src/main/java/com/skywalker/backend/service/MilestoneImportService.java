@@ -0,0 +1,281 @@
+package com.skywalker.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skywalker.backend.dto.MilestoneImportError;
+import com.skywalker.backend.dto.MilestoneImportResult;
+import com.skywalker.backend.event.MilestoneChangedEvent;
+import com.skywalker.backend.repository.MilestoneImportRepository;
+import com.skywalker.backend.repository.MilestoneImportRepository.StagingWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bulk import of milestones from a CSV or NDJSON upload in the export's format. The upload is
+ * parsed and validated in one streaming pass that feeds a COPY into a staging table; valid rows
+ * are then merged and invalid ones reported by line. A row whose id is one of the user's
+ * milestones replaces it, so re-importing an export (or retrying an upload of one) does not
+ * duplicate anything; other rows are added under new ids. The user's write lock is only taken
+ * for the final merge, not while the upload is being read.
+ */
+@Service
+@RequiredArgsConstructor
+public class MilestoneImportService {
+
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final int MAX_RECORD_LENGTH = 65536;
+
+    private final MilestoneImportRepository importRepository;
+    private final MilestoneRollupService rollupService;
+    private final ApplicationEventPublisher events;
+    private final ObjectMapper objectMapper;
+
+    @Value("${milestones.import.max-rows:100000}")
+    private int maxRows;
+
+    @Value("${milestones.import.max-errors:100}")
+    private int maxErrors;
+
+    @Transactional
+    public MilestoneImportResult importMilestones(Long userId, MilestoneFileFormat format, InputStream in) {
+        Reader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Report report = new Report();
+        LocalDate today = LocalDate.now();
+
+        importRepository.createStaging();
+        long staged = importRepository.copyIntoStaging(writer -> {
+            if (format == MilestoneFileFormat.CSV) {
+                stageCsv(reader, writer, report);
+            } else {
+                stageNdjson(reader, writer, report);
+            }
+        });
+        if (staged == 0) {
+            return report.result(0);
+        }
+
+        MilestoneRollupDelta rollup = rollupService.open(userId);
+        int imported = importRepository.updateExisting(userId, rollup.getVersion(), today)
+                + importRepository.insertNew(userId, rollup.getVersion(), staged, today);
+        rollup.requireRebuild();
+        rollupService.apply(rollup);
+        events.publishEvent(new MilestoneChangedEvent(userId, rollup.getVersion()));
+        return report.result(imported);
+    }
+
+    private void stageCsv(Reader reader, StagingWriter writer, Report report) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader, MAX_RECORD_LENGTH);
+        List<String> header = readRecord(csv);
+        if (header == null) {
+            return;
+        }
+        // Columns are matched by name, in any order; unknown ones are ignored
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i) == null ? "" : header.get(i).replace("\uFEFF", "").trim();
+            columns.put(name.toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("title")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV header must include a title column");
+        }
+
+        List<String> record;
+        while ((record = readRecord(csv)) != null) {
+            if (record.size() == 1 && record.get(0) == null) {
+                continue;
+            }
+            List<String> fields = record;
+            stage(csv.getRecordLine(), name -> {
+                Integer index = columns.get(name.toLowerCase(Locale.ROOT));
+                return index == null || index >= fields.size() ? null : fields.get(index);
+            }, writer, report);
+        }
+    }
+
+    private void stageNdjson(Reader reader, StagingWriter writer, Report report) throws IOException {
+        int lineNumber = 0;
+        String line;
+        while ((line = readLine(reader, lineNumber + 1)) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(line);
+            } catch (JsonProcessingException e) {
+                report.count();
+                report.reject(lineNumber, "Invalid JSON");
+                continue;
+            }
+            if (!node.isObject()) {
+                report.count();
+                report.reject(lineNumber, "Expected a JSON object");
+                continue;
+            }
+            stage(lineNumber, name -> {
+                JsonNode value = node.get(name);
+                return value == null || value.isNull() ? null : value.asText();
+            }, writer, report);
+        }
+    }
+
+    // Validates one row with the same rules as the single-milestone endpoints and stages it if valid
+    private void stage(int line, Function<String, String> field, StagingWriter writer, Report report)
+            throws IOException {
+        report.count();
+        try {
+            Long id = id(field.apply("id"));
+            String title = text(field.apply("title"), "title");
+            if (title == null || title.isBlank()) {
+                throw new IllegalArgumentException("title is required");
+            }
+            String description = text(field.apply("description"), "description");
+            LocalDate achieveDate = date(field.apply("achieveDate"), "achieveDate");
+            LocalDate createdDate = date(field.apply("createdDate"), "createdDate");
+            LocalDate completedDate = date(field.apply("completedDate"), "completedDate");
+            Boolean completed = bool(field.apply("completed"));
+            if (completed == null) {
+                completed = completedDate != null;
+            }
+            if (!completed && completedDate != null) {
+                throw new IllegalArgumentException("completedDate is set on a milestone that is not completed");
+            }
+            if (id != null) {
+                Integer firstLine = report.claimId(id, line);
+                if (firstLine != null) {
+                    throw new IllegalArgumentException("id " + id + " is already used on line " + firstLine);
+                }
+            }
+            // Missing dates are filled in by the merge, which knows whether the row already exists
+            writer.write(line, id, title, description, completed, achieveDate, createdDate, completedDate);
+        } catch (IllegalArgumentException e) {
+            report.reject(line, e.getMessage());
+        }
+    }
+
+    private List<String> readRecord(CsvRecordReader csv) throws IOException {
+        try {
+            return csv.next();
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // Like BufferedReader.readLine, but refuses lines over the record limit instead of buffering them
+    private static String readLine(Reader reader, int lineNumber) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = reader.read()) != -1 && c != '\n') {
+            if (line.length() == MAX_RECORD_LENGTH) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Line " + lineNumber
+                        + " is longer than " + MAX_RECORD_LENGTH + " characters");
+            }
+            line.append((char) c);
+        }
+        if (c == -1 && line.isEmpty()) {
+            return null;
+        }
+        return line.toString();
+    }
+
+    private static String text(String value, String name) {
+        if (value != null && value.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException(name + " is longer than " + MAX_TEXT_LENGTH + " characters");
+        }
+        // Postgres text cannot hold NUL; caught here it fails the row instead of the whole COPY
+        if (value != null && value.indexOf('\u0000') >= 0) {
+            throw new IllegalArgumentException(name + " must not contain NUL characters");
+        }
+        return value;
+    }
+
+    private static Long id(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            long id = Long.parseLong(value.trim());
+            if (id > 0) {
+                return id;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("id must be a positive whole number");
+    }
+
+    private static LocalDate date(String value, String name) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(name + " must be a date in yyyy-MM-dd format");
+        }
+    }
+
+    private static Boolean bool(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "true" -> true;
+            case "false" -> false;
+            default -> throw new IllegalArgumentException("completed must be true or false");
+        };
+    }
+
+    private class Report {
+
+        private int rows;
+        private int failed;
+        private final List<MilestoneImportError> errors = new ArrayList<>();
+        private final Map<Long, Integer> idLines = new HashMap<>();
+
+        void count() {
+            if (++rows > maxRows) {
+                throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                        "Imports are limited to " + maxRows + " milestones");
+            }
+        }
+
+        // Returns the line that already staged this id, if any
+        Integer claimId(long id, int line) {
+            return idLines.putIfAbsent(id, line);
+        }
+
+        void reject(int line, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new MilestoneImportError(line, message));
+            }
+        }
+
+        MilestoneImportResult result(int imported) {
+            return new MilestoneImportResult(imported, failed, errors);
+        }
+    }
+}
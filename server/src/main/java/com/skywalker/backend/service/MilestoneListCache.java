@@ -0,0 +1,155 @@
+package com.skywalker.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.skywalker.backend.dto.MilestoneDTO;
+import com.skywalker.backend.event.MilestoneChangedEvent;
+import com.skywalker.backend.repository.MilestoneVersion;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Each user's full milestone list, kept as the serialized response body (one entry per wire
+ * format the user has asked for, plus its gzipped form once a client has accepted gzip) and
+ * bounded by total bytes. Entries are tagged with the collection version they were loaded
+ * under and only served while that is still the current version, so an entry populated
+ * concurrently with a write can never be served after the write commits; commits also drop
+ * the entry outright. Repeat reads of an unchanged list skip both Jackson and the compressor.
+ */
+@Component
+public class MilestoneListCache {
+
+    // In order of preference when the client accepts several; JSON first, so */* gets JSON
+    private final Map<MediaType, ObjectMapper> mappers = new LinkedHashMap<>();
+    private final Cache<Key, Entry> entries;
+    // Same settings as server.compression, which compresses every other response
+    private final boolean compressionEnabled;
+    private final long minCompressedSize;
+
+    public MilestoneListCache(ObjectMapper objectMapper, MappingJackson2CborHttpMessageConverter cbor,
+                              MappingJackson2SmileHttpMessageConverter smile,
+                              @Value("${milestones.list-cache.max-size:64MB}") DataSize maxSize,
+                              @Value("${server.compression.enabled:false}") boolean compressionEnabled,
+                              @Value("${server.compression.min-response-size:2KB}") DataSize minCompressedSize,
+                              MeterRegistry meterRegistry) {
+        this.compressionEnabled = compressionEnabled;
+        this.minCompressedSize = minCompressedSize.toBytes();
+        mappers.put(MediaType.APPLICATION_JSON, objectMapper);
+        mappers.put(MediaType.APPLICATION_CBOR, cbor.getObjectMapper());
+        mappers.put(new MediaType("application", "x-jackson-smile"), smile.getObjectMapper());
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Key key, Entry entry) -> entry.weight())
+                .recordStats()
+                .build();
+        // Tag keys of Boot's cache metrics, so cache dashboards and alerts cover this cache too
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "milestoneLists",
+                "name", "milestoneLists", "cache.manager", "milestoneListCache");
+    }
+
+    /**
+     * The first format in {@code accepted} (as resolved by content negotiation, most preferred
+     * first) that the list can be served in, or empty when the client accepts none of them.
+     * A missing Accept header resolves to {@code *}{@code /*} and so gets JSON.
+     */
+    public Optional<MediaType> negotiate(List<MediaType> accepted) {
+        for (MediaType type : accepted) {
+            for (MediaType format : mappers.keySet()) {
+                if (type.isCompatibleWith(format)) {
+                    return Optional.of(format);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    public List<MediaType> formats() {
+        return List.copyOf(mappers.keySet());
+    }
+
+    /**
+     * The list encoded in {@code format}, gzipped if the client accepts gzip and the body is over
+     * the compression threshold. Serialized and compressed at most once per collection version.
+     */
+    public Body get(MilestoneVersion version, MediaType format, boolean acceptsGzip,
+                    Supplier<List<MilestoneDTO>> loader) {
+        Key key = new Key(version.userId(), format);
+        Entry entry = entries.getIfPresent(key);
+        boolean changed = entry == null || entry.version() != version.version();
+        if (changed) {
+            entry = new Entry(version.version(), serialize(loader.get(), format), null);
+        }
+        boolean gzipped = acceptsGzip && compressible(entry.body());
+        if (gzipped && entry.gzipped() == null) {
+            entry = new Entry(entry.version(), entry.body(), gzip(entry.body()));
+            changed = true;
+        }
+        if (changed) {
+            entries.put(key, entry);
+        }
+        return gzipped ? new Body(entry.gzipped(), true) : new Body(entry.body(), false);
+    }
+
+    public byte[] serialize(List<MilestoneDTO> milestones, MediaType format) {
+        try {
+            return mappers.get(format).writeValueAsBytes(milestones);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize milestones", e);
+        }
+    }
+
+    private boolean compressible(byte[] body) {
+        return compressionEnabled && body.length >= minCompressedSize;
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMilestoneChanged(MilestoneChangedEvent event) {
+        for (MediaType format : mappers.keySet()) {
+            entries.invalidate(new Key(event.userId(), format));
+        }
+    }
+
+    /** A response body; {@code gzipped} bodies must be sent with Content-Encoding: gzip. */
+    public record Body(byte[] bytes, boolean gzipped) {
+    }
+
+    private record Key(Long userId, MediaType format) {
+    }
+
+    private record Entry(long version, byte[] body, byte[] gzipped) {
+
+        int weight() {
+            return body.length + (gzipped == null ? 0 : gzipped.length);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.skywalker.backend.service;
+
+import com.skywalker.backend.dto.MilestoneDTO;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Changes to one user's rollup collected during a write transaction. Obtained from
+ * {@link MilestoneRollupService#open(Long)} and applied once the milestone rows are written.
+ */
+@Getter
+public class MilestoneRollupDelta {
+
+    private final Long userId;
+    private boolean rebuildRequired;
+    // Change sequence to stamp on every milestone row written under this delta
+    private final long version;
+    private long total;
+    private long completed;
+    private final Map<LocalDate, Long> completionsByDay = new HashMap<>();
+
+    MilestoneRollupDelta(Long userId, boolean rebuildRequired, long version) {
+        this.userId = userId;
+        this.rebuildRequired = rebuildRequired;
+        this.version = version;
+    }
+
+    // For bulk writes that do not report their rows: the rollup is recomputed from the table instead
+    public void requireRebuild() {
+        rebuildRequired = true;
+    }
+
+    public void added(MilestoneDTO milestone) {
+        total++;
+        if (milestone.isCompleted()) {
+            completion(milestone.getCompletedDate(), 1);
+        }
+    }
+
+    public void removed(MilestoneDTO milestone) {
+        total--;
+        if (milestone.isCompleted()) {
+            completion(milestone.getCompletedDate(), -1);
+        }
+    }
+
+    public void changed(boolean wasCompleted, LocalDate wasCompletedDate, MilestoneDTO milestone) {
+        if (wasCompleted) {
+            completion(wasCompletedDate, -1);
+        }
+        if (milestone.isCompleted()) {
+            completion(milestone.getCompletedDate(), 1);
+        }
+    }
+
+    private void completion(LocalDate day, int delta) {
+        completed += delta;
+        if (day != null) {
+            completionsByDay.merge(day, (long) delta, Long::sum);
+        }
+    }
+}
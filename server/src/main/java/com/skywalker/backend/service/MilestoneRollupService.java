@@ -0,0 +1,83 @@
+package com.skywalker.backend.service;
+
+import com.skywalker.backend.observability.QueryStats;
+import com.skywalker.backend.repository.MilestoneRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the per-user milestone rollups in step with the milestones table. Writers call
+ * {@link #open(Long)} before touching milestone rows, which serialises writes per user,
+ * record their changes on the returned delta and {@link #apply} it in the same transaction.
+ */
+@Slf4j
+@Service
+public class MilestoneRollupService {
+
+    private final MilestoneRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public MilestoneRollupService(MilestoneRollupRepository rollupRepository,
+                                  PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public MilestoneRollupDelta open(Long userId) {
+        MilestoneRollupRepository.WriteLock lock = rollupRepository.lockForWrite(userId);
+        return new MilestoneRollupDelta(userId, lock.needsRebuild(), lock.version());
+    }
+
+    // Milestone rows must already be flushed: a rebuild reads them back with SQL. Rebuilds only
+    // follow a user's first write or an import, so they are kept out of the write endpoints' budgets
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(MilestoneRollupDelta delta) {
+        if (delta.isRebuildRequired()) {
+            QueryStats.exemptFromBudget(() -> rollupRepository.rebuild(delta.getUserId()));
+            return;
+        }
+        if (delta.getTotal() != 0 || delta.getCompleted() != 0) {
+            rollupRepository.addCounts(delta.getUserId(), delta.getTotal(), delta.getCompleted());
+        }
+        Map<LocalDate, Long> days = delta.getCompletionsByDay().entrySet().stream()
+                .filter(e -> e.getValue() != 0)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        if (!days.isEmpty()) {
+            rollupRepository.addCompletions(delta.getUserId(), days);
+        }
+    }
+
+    @Transactional
+    public void rebuild(Long userId) {
+        rollupRepository.lockForUpdate(userId);
+        rollupRepository.rebuild(userId);
+    }
+
+    // Repair job: recompute every user's rollup from the milestones table, one transaction per user
+    @Scheduled(cron = "${milestones.rollups.rebuild-cron:0 30 3 * * *}")
+    public void rebuildAll() {
+        List<Long> userIds = rollupRepository.findUserIds();
+        for (Long userId : userIds) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    rollupRepository.lockForUpdate(userId);
+                    rollupRepository.rebuild(userId);
+                });
+            } catch (RuntimeException e) {
+                log.error("Failed to rebuild milestone rollup for user {}: {}", userId, e.getMessage());
+            }
+        }
+        log.info("Rebuilt milestone rollups for {} users", userIds.size());
+    }
+}
@@ -1,60 +1,407 @@
 package com.skywalker.backend.service;
 
+import com.skywalker.backend.dto.MilestoneBatchItem;
+import com.skywalker.backend.dto.MilestoneBatchResult;
 import com.skywalker.backend.dto.MilestoneDTO;
+import com.skywalker.backend.dto.MilestonePage;
+import com.skywalker.backend.dto.MilestonePatch;
+import com.skywalker.backend.dto.MilestoneQuery;
+import com.skywalker.backend.event.MilestoneChangedEvent;
 import com.skywalker.backend.model.Milestone;
 import com.skywalker.backend.model.User;
+import com.skywalker.backend.repository.MilestoneChange;
+import com.skywalker.backend.repository.MilestoneKeyset;
 import com.skywalker.backend.repository.MilestoneRepository;
+import com.skywalker.backend.repository.MilestoneRollupRepository;
+import com.skywalker.backend.repository.MilestoneSearchHit;
+import com.skywalker.backend.repository.MilestoneSearchKeyset;
+import com.skywalker.backend.repository.MilestoneSort;
+import com.skywalker.backend.repository.MilestoneVersion;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class MilestoneService {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final int MAX_SEARCH_LENGTH = 200;
+    private static final int MAX_SEARCH_TERMS = 8;
+    private static final Pattern SEARCH_TERM_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
     private final MilestoneRepository repository;
     private final UserService userService;
+    private final MilestoneRollupService rollupService;
+    private final MilestoneRollupRepository rollupRepository;
+    private final ApplicationEventPublisher events;
+    private final MilestoneListCache listCache;
+
+    @Transactional(readOnly = true)
+    public MilestonePage getMilestonePage(MilestoneQuery query) {
+        Long userId = userService.getCurrentUserId();
+
+        MilestoneSort sort = MilestoneSort.fromParameter(query.getSort())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported sort: " + query.getSort()));
+        String direction = query.getDirection() == null ? "asc" : query.getDirection();
+        if (!"asc".equalsIgnoreCase(direction) && !"desc".equalsIgnoreCase(direction)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported direction: " + direction);
+        }
+        boolean descending = "desc".equalsIgnoreCase(direction);
+        int limit = query.getLimit() == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(query.getLimit(), 1), MAX_PAGE_SIZE);
+
+        MilestoneKeyset after = null;
+        if (query.getCursor() != null && !query.getCursor().isBlank()) {
+            try {
+                after = MilestoneKeyset.decode(query.getCursor());
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+            if (after.sort() != sort || after.descending() != descending) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor does not match the requested sort");
+            }
+        }
+
+        // Fetch one extra row to know whether another page follows
+        List<MilestoneDTO> rows = repository.findPage(userId, query, sort, descending, after, limit + 1);
+        boolean hasMore = rows.size() > limit;
+        List<MilestoneDTO> items = hasMore ? rows.subList(0, limit) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            MilestoneDTO last = items.get(items.size() - 1);
+            nextCursor = new MilestoneKeyset(sort, descending, sort.valueOf(last), last.getId()).encode();
+        }
+        return new MilestonePage(items, nextCursor, hasMore);
+    }
 
-    public List<MilestoneDTO> getAllMilestones() {
-        User currentUser = userService.getCurrentUser();
-        return repository.findByUser(currentUser).stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+    // Ranked search over titles and descriptions; every word typed must start a word of the milestone
+    @Transactional(readOnly = true)
+    public MilestonePage searchMilestones(String q, String cursor, Integer requestedLimit) {
+        if (q != null && q.length() > MAX_SEARCH_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Search query is too long");
+        }
+        String tsQuery = toPrefixQuery(q);
+        if (tsQuery == null) {
+            return new MilestonePage(List.of(), null, false);
+        }
+        int limit = requestedLimit == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(requestedLimit, 1), MAX_PAGE_SIZE);
+
+        MilestoneSearchKeyset after = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                after = MilestoneSearchKeyset.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+        }
+
+        List<MilestoneSearchHit> hits = repository.search(userService.getCurrentUserId(), tsQuery, after, limit + 1);
+        boolean hasMore = hits.size() > limit;
+        List<MilestoneSearchHit> page = hasMore ? hits.subList(0, limit) : hits;
+
+        String nextCursor = null;
+        if (hasMore) {
+            MilestoneSearchHit last = page.get(page.size() - 1);
+            nextCursor = new MilestoneSearchKeyset(last.rank(), last.milestone().getId()).encode();
+        }
+        return new MilestonePage(page.stream().map(MilestoneSearchHit::milestone).toList(), nextCursor, hasMore);
     }
 
+    // "Trip to Par" becomes "trip:* & to:* & par:*". Only letters and digits are kept, so nothing
+    // the user types is ever parsed as a tsquery operator.
+    static String toPrefixQuery(String q) {
+        if (q == null) {
+            return null;
+        }
+        String terms = SEARCH_TERM_SEPARATOR.splitAsStream(q.toLowerCase(Locale.ROOT))
+                .filter(term -> !term.isEmpty())
+                .limit(MAX_SEARCH_TERMS)
+                .map(term -> term + ":*")
+                .collect(Collectors.joining(" & "));
+        return terms.isEmpty() ? null : terms;
+    }
+
+    @Transactional(readOnly = true)
     public Optional<MilestoneDTO> getMilestoneById(long id) {
-        User currentUser = userService.getCurrentUser();
-        return repository.findByIdAndUser(id, currentUser).map(this::toDTO);
+        Long userId = userService.getCurrentUserId();
+        return repository.findDTOByIdAndUserId(id, userId);
+    }
+
+    /**
+     * Runs {@code reader} with the user's collection version (empty until the user's first write
+     * has created the rollup row) inside one read-only snapshot, which the reads it makes join.
+     * The version and the rows therefore come from the same source and point in time: with a
+     * replica, an ETag or a cached list body can never pair a new version with rows the replica
+     * has not caught up on yet.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public <T> T atCollectionVersion(Function<Optional<MilestoneVersion>, T> reader) {
+        return reader.apply(rollupRepository.findVersion(userService.getCurrentUserId()));
     }
 
+    // The format the full list is served in for the client's accepted media types
+    public MediaType negotiateListFormat(List<MediaType> accepted) throws HttpMediaTypeNotAcceptableException {
+        return listCache.negotiate(accepted)
+                .orElseThrow(() -> new HttpMediaTypeNotAcceptableException(listCache.formats()));
+    }
+
+    // The full list encoded in format, from the per-user cache while the collection version is unchanged;
+    // called inside atCollectionVersion so the rows are read in the version's snapshot
+    public MilestoneListCache.Body getAllMilestonesEncoded(Optional<MilestoneVersion> version, MediaType format,
+                                                           boolean acceptsGzip) {
+        Long userId = userService.getCurrentUserId();
+        if (version.isEmpty()) {
+            // Left to server.compression
+            byte[] body = listCache.serialize(repository.findAllDTOByUserId(userId), format);
+            return new MilestoneListCache.Body(body, false);
+        }
+        return listCache.get(version.get(), format, acceptsGzip, () -> repository.findAllDTOByUserId(userId));
+    }
+
+    // Every write locks the user's rollup first (see MilestoneRollupService) and applies its delta last
+
+    @Transactional
     public MilestoneDTO createMilestone(Milestone milestone) {
-        Milestone saved = repository.save(milestone);
-        return toDTO(saved);
+        MilestoneRollupDelta rollup = rollupService.open(userService.getCurrentUserId());
+        milestone.setChangeSeq(rollup.getVersion());
+        MilestoneDTO created = toDTO(repository.saveAndFlush(milestone));
+        rollup.added(created);
+        finish(rollup);
+        return created;
     }
 
+    @Transactional
     public void deleteMilestone(long id) {
-        User currentUser = userService.getCurrentUser();
-        Milestone milestone = repository.findByIdAndUser(id, currentUser)
+        MilestoneRollupDelta rollup = rollupService.open(userService.getCurrentUserId());
+        MilestoneDTO deleted = repository.deleteOwned(id, rollup.getUserId(), rollup.getVersion())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Milestone not found"));
+        rollup.removed(deleted);
+        finish(rollup);
+    }
+
+    @Transactional
+    public MilestoneDTO patchMilestone(long id, MilestonePatch patch) {
+        if (Boolean.FALSE.equals(patch.getCompleted()) && patch.getCompletedDate() != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "completedDate cannot be set on a milestone marked incomplete");
+        }
+        MilestoneRollupDelta rollup = rollupService.open(userService.getCurrentUserId());
+        MilestoneChange change = repository.patchOwned(id, rollup.getUserId(), rollup.getVersion(), patch,
+                        LocalDate.now())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Milestone not found"));
+        return applyChanges(rollup, List.of(change)).get(0);
+    }
+
+    @Transactional
+    public MilestoneDTO completeMilestone(long id) {
+        MilestoneRollupDelta rollup = rollupService.open(userService.getCurrentUserId());
+        MilestoneChange change = repository.completeOwned(id, rollup.getUserId(), rollup.getVersion(), LocalDate.now())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Milestone not found"));
+        return applyChanges(rollup, List.of(change)).get(0);
+    }
+
+    // Batch operations: one transaction per request, per-item results in request order
+
+    @Transactional
+    public MilestoneBatchResult createMilestones(List<MilestoneDTO> dtos) {
+        checkBatchSize(dtos);
+        MilestoneRollupDelta rollup = rollupService.open(userService.getCurrentUserId());
+        User owner = userService.getCurrentUserReference();
+
+        List<Milestone> milestones = new ArrayList<>(dtos.size());
+        for (MilestoneDTO dto : dtos) {
+            Milestone milestone = new Milestone();
+            milestone.setTitle(dto.getTitle());
+            milestone.setDescription(dto.getDescription());
+            milestone.setAchieveDate(dto.getAchieveDate());
+            milestone.setUser(owner);
+            milestone.setChangeSeq(rollup.getVersion());
+            milestones.add(milestone);
+        }
+
+        // Sequence ids are pre-allocated, so the inserts go out as JDBC batches on flush
+        List<Milestone> saved = repository.saveAllAndFlush(milestones);
+
+        List<MilestoneBatchItem> results = new ArrayList<>(saved.size());
+        for (int i = 0; i < saved.size(); i++) {
+            MilestoneDTO created = toDTO(saved.get(i));
+            rollup.added(created);
+            results.add(MilestoneBatchItem.succeeded(i, created.getId(), HttpStatus.CREATED.value(), created));
+        }
+        finish(rollup);
+        return new MilestoneBatchResult(results);
+    }
+
+    @Transactional
+    public MilestoneBatchResult updateMilestones(List<MilestoneDTO> dtos) {
+        checkBatchSize(dtos);
+        MilestoneRollupDelta rollup = rollupService.open(userService.getCurrentUserId());
+
+        Set<Long> ids = dtos.stream()
+                .map(MilestoneDTO::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Milestone> owned = ids.isEmpty() ? Map.of() : repository.findByIdInAndUserId(ids, rollup.getUserId())
+                .stream()
+                .collect(Collectors.toMap(Milestone::getId, Function.identity()));
+
+        Map<Long, MilestoneDTO> before = new HashMap<>();
+        for (MilestoneDTO dto : dtos) {
+            Milestone existing = dto.getId() != null ? owned.get(dto.getId()) : null;
+            if (existing != null) {
+                before.putIfAbsent(existing.getId(), toDTO(existing));
+                existing.setTitle(dto.getTitle());
+                existing.setDescription(dto.getDescription());
+                existing.setAchieveDate(dto.getAchieveDate());
+                existing.setCompleted(dto.isCompleted());
+                existing.setCompletedDate(dto.getCompletedDate());
+                existing.setChangeSeq(rollup.getVersion());
+            }
+        }
+        // Dirty milestones are written as one batched UPDATE on flush
+        repository.flush();
+        before.forEach((id, old) ->
+                rollup.changed(old.isCompleted(), old.getCompletedDate(), toDTO(owned.get(id))));
+        if (before.isEmpty()) {
+            discardUnchanged();
+        } else {
+            finish(rollup);
+        }
+
+        List<MilestoneBatchItem> results = new ArrayList<>(dtos.size());
+        for (int i = 0; i < dtos.size(); i++) {
+            Long id = dtos.get(i).getId();
+            if (id == null) {
+                results.add(MilestoneBatchItem.failed(i, null, HttpStatus.BAD_REQUEST.value(), "Milestone id is required"));
+            } else if (!owned.containsKey(id)) {
+                results.add(MilestoneBatchItem.failed(i, id, HttpStatus.NOT_FOUND.value(), "Milestone not found"));
+            } else {
+                results.add(MilestoneBatchItem.succeeded(i, id, HttpStatus.OK.value(), toDTO(owned.get(id))));
+            }
+        }
+        return new MilestoneBatchResult(results);
+    }
+
+    @Transactional
+    public MilestoneBatchResult completeMilestones(List<Long> ids) {
+        checkBatchSize(ids);
+        MilestoneRollupDelta rollup = rollupService.open(userService.getCurrentUserId());
+        Set<Long> distinct = distinctIds(ids);
+        List<MilestoneChange> changes = distinct.isEmpty()
+                ? List.of()
+                : repository.completeAllOwned(distinct, rollup.getUserId(), rollup.getVersion(), LocalDate.now());
+        if (changes.isEmpty()) {
+            discardUnchanged();
+            return toBatchResult(ids, List.of(), HttpStatus.OK, true);
+        }
+        return toBatchResult(ids, applyChanges(rollup, changes), HttpStatus.OK, true);
+    }
+
+    @Transactional
+    public MilestoneBatchResult deleteMilestones(List<Long> ids) {
+        checkBatchSize(ids);
+        MilestoneRollupDelta rollup = rollupService.open(userService.getCurrentUserId());
+        Set<Long> distinct = distinctIds(ids);
+        List<MilestoneDTO> deleted = distinct.isEmpty()
+                ? List.of()
+                : repository.deleteAllOwned(distinct, rollup.getUserId(), rollup.getVersion());
+        if (deleted.isEmpty()) {
+            discardUnchanged();
+        } else {
+            deleted.forEach(rollup::removed);
+            finish(rollup);
+        }
+        return toBatchResult(ids, deleted, HttpStatus.NO_CONTENT, false);
+    }
+
+    @Transactional
+    public MilestoneDTO updateMilestone(long id, Milestone milestone) {
+        MilestoneRollupDelta rollup = rollupService.open(userService.getCurrentUserId());
+        Milestone existing = repository.findOwned(id, rollup.getUserId())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Milestone not found"));
-        repository.delete(milestone);
-    }
-
-    public Optional<MilestoneDTO> updateMilestone(long id, Milestone milestone) {
-        User currentUser = userService.getCurrentUser();
-        return repository.findByIdAndUser(id, currentUser)
-                .map(existing -> {
-                    existing.setTitle(milestone.getTitle());
-                    existing.setDescription(milestone.getDescription());
-                    existing.setAchieveDate(milestone.getAchieveDate());
-                    existing.setCompleted(milestone.isCompleted());
-                    existing.setCompletedDate(milestone.getCompletedDate());
-                    return toDTO(repository.save(existing));
-                });
+        MilestoneDTO before = toDTO(existing);
+        existing.setTitle(milestone.getTitle());
+        existing.setDescription(milestone.getDescription());
+        existing.setAchieveDate(milestone.getAchieveDate());
+        existing.setCompleted(milestone.isCompleted());
+        existing.setCompletedDate(milestone.getCompletedDate());
+        existing.setChangeSeq(rollup.getVersion());
+        MilestoneDTO after = toDTO(repository.saveAndFlush(existing));
+        rollup.changed(before.isCompleted(), before.getCompletedDate(), after);
+        finish(rollup);
+        return after;
+    }
+
+    // Applies the rollup delta and tells listeners the user's collection moved to a new version
+    private void finish(MilestoneRollupDelta rollup) {
+        rollupService.apply(rollup);
+        events.publishEvent(new MilestoneChangedEvent(rollup.getUserId(), rollup.getVersion()));
+    }
+
+    // A batch that matched nothing rolls back its version bump, so validators, caches and streams stay put
+    private static void discardUnchanged() {
+        TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+    }
+
+    private List<MilestoneDTO> applyChanges(MilestoneRollupDelta rollup, List<MilestoneChange> changes) {
+        changes.forEach(c -> rollup.changed(c.wasCompleted(), c.wasCompletedDate(), c.milestone()));
+        finish(rollup);
+        return changes.stream().map(MilestoneChange::milestone).toList();
+    }
+
+    private static void checkBatchSize(List<?> items) {
+        if (items == null || items.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch must not be empty");
+        }
+        if (items.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch exceeds " + MAX_BATCH_SIZE + " items");
+        }
+    }
+
+    private static Set<Long> distinctIds(List<Long> ids) {
+        return ids.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+    }
+
+    // Matches affected rows back to the requested ids; ids that matched nothing are reported as 404
+    private static MilestoneBatchResult toBatchResult(List<Long> ids, List<MilestoneDTO> affected,
+                                                      HttpStatus status, boolean includeMilestone) {
+        Map<Long, MilestoneDTO> byId = affected.stream()
+                .collect(Collectors.toMap(MilestoneDTO::getId, Function.identity()));
+
+        List<MilestoneBatchItem> results = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            MilestoneDTO milestone = id != null ? byId.get(id) : null;
+            if (milestone == null) {
+                results.add(MilestoneBatchItem.failed(i, id, HttpStatus.NOT_FOUND.value(), "Milestone not found"));
+            } else {
+                results.add(MilestoneBatchItem.succeeded(i, id, status.value(), includeMilestone ? milestone : null));
+            }
+        }
+        return new MilestoneBatchResult(results);
     }
 
     private MilestoneDTO toDTO(Milestone milestone) {
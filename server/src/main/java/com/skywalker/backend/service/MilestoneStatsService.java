@@ -0,0 +1,74 @@
+package com.skywalker.backend.service;
+
+import com.skywalker.backend.dto.MilestoneStatsDTO;
+import com.skywalker.backend.dto.MilestoneStatsDTO.PeriodCount;
+import com.skywalker.backend.model.MilestoneRollup;
+import com.skywalker.backend.repository.MilestoneRollupRepository;
+import com.skywalker.backend.repository.MilestoneStatsRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+public class MilestoneStatsService {
+
+    private final MilestoneStatsRepository statsRepository;
+    private final MilestoneRollupRepository rollupRepository;
+    private final UserService userService;
+
+    @Transactional(readOnly = true)
+    public MilestoneStatsDTO getStats(int upcomingDays, int weeks, int months) {
+        Long userId = userService.getCurrentUserId();
+        LocalDate today = LocalDate.now();
+
+        LocalDate upcomingEnd = today.plusDays(upcomingDays);
+        LocalDate firstWeek = today.with(DayOfWeek.MONDAY).minusWeeks(weeks - 1L);
+        LocalDate firstMonth = today.withDayOfMonth(1).minusMonths(months - 1L);
+
+        // Totals and completion series come from the maintained rollup when it is usable;
+        // otherwise aggregate over the user's milestones directly
+        Optional<MilestoneRollup> rollup = rollupRepository.findByUserId(userId).filter(r -> !r.isNeedsRebuild());
+        MilestoneStatsDTO stats;
+        Map<LocalDate, Long> weekly;
+        Map<LocalDate, Long> monthly;
+        if (rollup.isPresent()) {
+            stats = statsRepository.countDue(userId, today, upcomingEnd);
+            stats.setTotal(rollup.get().getTotalCount());
+            stats.setCompleted(rollup.get().getCompletedCount());
+            weekly = rollupRepository.sumCompletionsPer("week", userId, firstWeek);
+            monthly = rollupRepository.sumCompletionsPer("month", userId, firstMonth);
+        } else {
+            stats = statsRepository.countByStatus(userId, today, upcomingEnd);
+            weekly = statsRepository.countCompletionsPer("week", userId, firstWeek);
+            monthly = statsRepository.countCompletionsPer("month", userId, firstMonth);
+        }
+
+        stats.setPending(stats.getTotal() - stats.getCompleted());
+        stats.setCompletionRate(stats.getTotal() > 0
+                ? (int) Math.round(stats.getCompleted() * 100.0 / stats.getTotal())
+                : 0);
+
+        stats.setCompletionsPerWeek(series(weekly, firstWeek, weeks, true));
+        stats.setCompletionsPerMonth(series(monthly, firstMonth, months, false));
+
+        return stats;
+    }
+
+    // Dense series for charting: one entry per period, zero where nothing was completed
+    private static List<PeriodCount> series(Map<LocalDate, Long> counts, LocalDate first, int periods, boolean weekly) {
+        List<PeriodCount> series = new ArrayList<>(periods);
+        for (int i = 0; i < periods; i++) {
+            LocalDate period = weekly ? first.plusWeeks(i) : first.plusMonths(i);
+            series.add(new PeriodCount(period, counts.getOrDefault(period, 0L)));
+        }
+        return series;
+    }
+}
@@ -0,0 +1,205 @@
+package com.skywalker.backend.service;
+
+import com.skywalker.backend.event.MilestoneChangedEvent;
+import com.skywalker.backend.repository.MilestoneRollupRepository;
+import com.skywalker.backend.repository.MilestoneVersion;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live milestone updates over Server-Sent Events. Each open stream is registered under its
+ * user; committed writes fan out a small "changed" event carrying the new cursor, and the
+ * client pulls the actual rows from {@code /api/milestones/changes}.
+ * <p>
+ * Idle streams are async requests and hold no thread. Every connection has a bounded queue
+ * drained by a virtual thread only while events are pending, so one slow client never delays
+ * another; a client whose queue overflows is disconnected and resyncs on reconnect.
+ */
+@Slf4j
+@Service
+public class MilestoneStreamService {
+
+    private final MilestoneRollupRepository rollupRepository;
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final ExecutorService dispatcher =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("milestone-stream-", 0).factory());
+
+    @Value("${milestones.stream.max-connections:10000}")
+    private int maxConnections;
+
+    @Value("${milestones.stream.max-connections-per-user:20}")
+    private int maxConnectionsPerUser;
+
+    @Value("${milestones.stream.buffer-size:16}")
+    private int bufferSize;
+
+    @Value("${milestones.stream.timeout:30m}")
+    private Duration timeout;
+
+    public MilestoneStreamService(MilestoneRollupRepository rollupRepository) {
+        this.rollupRepository = rollupRepository;
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        Subscriber subscriber = new Subscriber(userId, new SseEmitter(timeout.toMillis()), bufferSize);
+        reserve(subscriber);
+        subscriber.emitter.onCompletion(() -> remove(subscriber));
+        subscriber.emitter.onTimeout(() -> remove(subscriber));
+        subscriber.emitter.onError(e -> remove(subscriber));
+
+        // Tell the client where it stands, so it can catch up on anything missed while disconnected
+        long version;
+        try {
+            version = rollupRepository.findVersion(userId).map(MilestoneVersion::version).orElse(0L);
+        } catch (RuntimeException e) {
+            remove(subscriber);
+            throw e;
+        }
+        subscriber.offer(changedEvent("ready", version));
+        return subscriber.emitter;
+    }
+
+    // Only committed changes are announced; the event is serialized once and shared by every stream of the user
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMilestoneChanged(MilestoneChangedEvent event) {
+        Set<Subscriber> userSubscribers = subscribers.get(event.userId());
+        if (userSubscribers == null || userSubscribers.isEmpty()) {
+            return;
+        }
+        Set<DataWithMediaType> payload = changedEvent("changed", event.version());
+        userSubscribers.forEach(subscriber -> subscriber.offer(payload));
+    }
+
+    // Comment lines keep proxies from closing idle streams and surface dead connections
+    @Scheduled(fixedDelayString = "${milestones.stream.heartbeat:25s}")
+    public void heartbeat() {
+        if (connections.get() == 0) {
+            return;
+        }
+        Set<DataWithMediaType> ping = SseEmitter.event().comment("ping").build();
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(subscriber -> subscriber.offer(ping)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(s -> s.emitter.complete()));
+        dispatcher.shutdown();
+    }
+
+    private static Set<DataWithMediaType> changedEvent(String name, long version) {
+        return SseEmitter.event()
+                .name(name)
+                .id(Long.toString(version))
+                .data("{\"cursor\":\"" + version + "\"}", MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    // Takes a global and a per-user slot atomically, so concurrent subscribes cannot overshoot either limit
+    private void reserve(Subscriber subscriber) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            throw tooManyStreams();
+        }
+        AtomicBoolean added = new AtomicBoolean();
+        subscribers.compute(subscriber.userId, (id, userSubscribers) -> {
+            Set<Subscriber> current = userSubscribers != null ? userSubscribers : ConcurrentHashMap.newKeySet();
+            if (current.size() < maxConnectionsPerUser) {
+                added.set(current.add(subscriber));
+            }
+            return current.isEmpty() ? null : current;
+        });
+        if (!added.get()) {
+            connections.decrementAndGet();
+            throw tooManyStreams();
+        }
+    }
+
+    private static ResponseStatusException tooManyStreams() {
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many open milestone streams");
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        connections.decrementAndGet();
+        subscribers.computeIfPresent(subscriber.userId, (id, userSubscribers) -> {
+            userSubscribers.remove(subscriber);
+            return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+    }
+
+    private class Subscriber {
+
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final Queue<Set<DataWithMediaType>> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscriber(Long userId, SseEmitter emitter, int bufferSize) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        void offer(Set<DataWithMediaType> event) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                log.warn("Disconnecting slow milestone stream of user {}", userId);
+                remove(this);
+                emitter.complete();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        // At most one drainer per connection, so events are written in order
+        private void drain() {
+            while (true) {
+                Set<DataWithMediaType> event;
+                while ((event = queue.poll()) != null) {
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException e) {
+                        remove(this);
+                        emitter.completeWithError(e);
+                        return;
+                    }
+                }
+                draining.set(false);
+                // An event offered after the last poll but before the flag was cleared is drained here
+                if (queue.isEmpty() || !draining.compareAndSet(false, true)) {
+                    return;
+                }
+            }
+        }
+    }
+}
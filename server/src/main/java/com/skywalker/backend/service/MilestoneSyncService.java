@@ -0,0 +1,71 @@
+package com.skywalker.backend.service;
+
+import com.skywalker.backend.dto.MilestoneChanges;
+import com.skywalker.backend.dto.MilestoneDTO;
+import com.skywalker.backend.repository.MilestoneRepository;
+import com.skywalker.backend.repository.MilestoneRollupRepository;
+import com.skywalker.backend.repository.MilestoneVersion;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Delta sync over the per-user change sequence. Every write stamps the rows it touches (and the
+ * tombstones of rows it deletes) with the collection version it took, so the changes since a
+ * cursor are an index range scan whose cost follows the amount of change.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MilestoneSyncService {
+
+    private final MilestoneRepository repository;
+    private final MilestoneRollupRepository rollupRepository;
+    private final UserService userService;
+
+    @Value("${milestones.tombstones.retention:30d}")
+    private Duration tombstoneRetention;
+
+    // One snapshot for the version and both range reads, so the cursor matches the rows returned
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public MilestoneChanges getChanges(String since) {
+        Long userId = userService.getCurrentUserId();
+        long current = rollupRepository.findVersion(userId).map(MilestoneVersion::version).orElse(0L);
+
+        if (since == null || since.isBlank()) {
+            return new MilestoneChanges(repository.findAllDTOByUserId(userId), List.of(), Long.toString(current), true);
+        }
+
+        long cursor;
+        try {
+            cursor = Long.parseLong(since);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+        // Cursors ahead of the collection or behind purged tombstones cannot be answered incrementally
+        if (cursor < 0 || cursor > current || cursor < rollupRepository.findTombstoneFloor(userId)) {
+            throw new ResponseStatusException(HttpStatus.GONE, "Cursor expired, fetch the full list again");
+        }
+
+        List<MilestoneDTO> upserts = cursor == current ? List.of() : repository.findChangedSince(userId, cursor);
+        List<Long> deleted = cursor == current ? List.of() : repository.findDeletedSince(userId, cursor);
+        return new MilestoneChanges(upserts, deleted, Long.toString(current), false);
+    }
+
+    @Transactional
+    @Scheduled(cron = "${milestones.tombstones.purge-cron:0 0 4 * * *}")
+    public void purgeTombstones() {
+        int purged = rollupRepository.purgeTombstones(Instant.now().minus(tombstoneRetention));
+        log.info("Purged {} milestone tombstones older than {}", purged, tombstoneRetention);
+    }
+}
@@ -2,18 +2,21 @@ package com.skywalker.backend.service;
 
 import com.skywalker.backend.dto.LoginRequest;
 import com.skywalker.backend.dto.Response;
+import com.skywalker.backend.dto.StreamTicket;
 import com.skywalker.backend.dto.UserDTO;
 import com.skywalker.backend.exception.OurException;
+import com.skywalker.backend.exception.PasswordHashingRejectedException;
 import com.skywalker.backend.model.User;
 import com.skywalker.backend.repository.UserRepository;
+import com.skywalker.backend.security.AuthenticatedUser;
 import com.skywalker.backend.security.JWTUtils;
 import com.skywalker.backend.security.Utils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -42,6 +45,8 @@ public class UserService {
         } catch (OurException e) {
             response.setSuccess(false);
             response.setMessage(e.getMessage());
+        } catch (PasswordHashingRejectedException e) {
+            throw e;
         } catch (Exception e) {
             response.setSuccess(false);
             response.setMessage("Error during registration: " + e.getMessage());
@@ -62,14 +67,7 @@ public class UserService {
             User user = userRepository.findByEmail(loginRequest.getEmail())
                     .orElseThrow(() -> new OurException("User Not Found"));
 
-            // Create UserDetails for JWT
-            UserDetails userDetails = org.springframework.security.core.userdetails.User.builder()
-                    .username(user.getEmail())
-                    .password(user.getPassword())
-                    .roles("USER")
-                    .build();
-
-            String token = jwtUtils.generateToken(userDetails);
+            String token = jwtUtils.generateToken(user);
 
             response.setSuccess(true);
             response.setMessage("Login successful");
@@ -81,6 +79,15 @@ public class UserService {
         } catch (OurException e) {
             response.setSuccess(false);
             response.setMessage(e.getMessage());
+        } catch (PasswordHashingRejectedException e) {
+            throw e;
+        } catch (InternalAuthenticationServiceException e) {
+            // The provider wraps anything thrown while loading the user, including a saturated hasher
+            if (e.getCause() instanceof PasswordHashingRejectedException rejected) {
+                throw rejected;
+            }
+            response.setSuccess(false);
+            response.setMessage("Error during login: " + e.getMessage());
         } catch (Exception e) {
             response.setSuccess(false);
             response.setMessage("Error during login: " + e.getMessage());
@@ -90,16 +97,34 @@ public class UserService {
     }
 
     public User getCurrentUser() {
+        return userRepository.findById(getCurrentUserId())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    // Id of the caller, taken from the token claims without touching the users table
+    public Long getCurrentUserId() {
+        return getCurrentPrincipal().id();
+    }
+
+    public StreamTicket issueStreamTicket() {
+        return new StreamTicket(jwtUtils.generateStreamTicket(getCurrentPrincipal()),
+                jwtUtils.getStreamTicketTtl().toSeconds());
+    }
+
+    private AuthenticatedUser getCurrentPrincipal() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
-        if (authentication == null || !authentication.isAuthenticated()) {
+        if (authentication == null || !authentication.isAuthenticated()
+                || !(authentication.getPrincipal() instanceof AuthenticatedUser principal)) {
             throw new RuntimeException("No authenticated user found");
         }
 
-        String email = authentication.getName();
+        return principal;
+    }
 
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    // Unloaded reference for associating new rows with the caller
+    public User getCurrentUserReference() {
+        return userRepository.getReferenceById(getCurrentUserId());
     }
 
 
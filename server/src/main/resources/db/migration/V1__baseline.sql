@@ -0,0 +1,26 @@
+-- Schema as previously created by Hibernate (ddl-auto: update). Existing databases are
+-- baselined at this version and start from V2.
+
+CREATE TABLE users (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    auth_provider VARCHAR(255) CHECK (auth_provider IN ('LOCAL', 'GOOGLE', 'GITHUB')),
+    created_date  DATE,
+    email         VARCHAR(255) NOT NULL UNIQUE,
+    first_name    VARCHAR(255),
+    image_url     VARCHAR(255),
+    last_name     VARCHAR(255),
+    password      VARCHAR(255),
+    provider_id   VARCHAR(255)
+);
+
+CREATE TABLE milestones (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    achieve_date   DATE,
+    completed      BOOLEAN NOT NULL,
+    completed_date DATE,
+    created_date   DATE,
+    description    VARCHAR(255),
+    title          VARCHAR(255),
+    user_id        BIGINT NOT NULL,
+    CONSTRAINT fk_milestones_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
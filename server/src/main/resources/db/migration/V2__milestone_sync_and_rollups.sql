@@ -0,0 +1,40 @@
+-- Everything added since the baseline while Hibernate still managed the schema. Written to be
+-- idempotent: databases baselined at V1 may already have some of it from ddl-auto: update.
+
+-- Pooled id sequence (allocation size 50), moved past any existing ids
+CREATE SEQUENCE IF NOT EXISTS milestones_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('milestones_seq', m.max_id + 50)
+FROM (SELECT MAX(id) AS max_id FROM milestones) m, milestones_seq s
+WHERE m.max_id IS NOT NULL AND (NOT s.is_called OR s.last_value < m.max_id);
+
+-- Optimistic locking, conditional GETs and delta sync
+ALTER TABLE milestones ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE milestones ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP(6) WITH TIME ZONE;
+ALTER TABLE milestones ADD COLUMN IF NOT EXISTS change_seq BIGINT NOT NULL DEFAULT 0;
+
+-- Per-user rollups, also carrying the collection version and tombstone floor
+CREATE TABLE IF NOT EXISTS milestone_rollups (
+    user_id         BIGINT PRIMARY KEY,
+    total_count     BIGINT NOT NULL,
+    completed_count BIGINT NOT NULL,
+    needs_rebuild   BOOLEAN NOT NULL,
+    updated_at      TIMESTAMP(6) WITH TIME ZONE
+);
+ALTER TABLE milestone_rollups ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE milestone_rollups ADD COLUMN IF NOT EXISTS modified_at TIMESTAMP(6) WITH TIME ZONE DEFAULT now();
+ALTER TABLE milestone_rollups ADD COLUMN IF NOT EXISTS tombstone_floor BIGINT NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS milestone_completion_days (
+    user_id     BIGINT NOT NULL,
+    day         DATE NOT NULL,
+    completions BIGINT NOT NULL,
+    PRIMARY KEY (user_id, day)
+);
+
+CREATE TABLE IF NOT EXISTS milestone_tombstones (
+    milestone_id BIGINT PRIMARY KEY,
+    user_id      BIGINT NOT NULL,
+    change_seq   BIGINT NOT NULL,
+    deleted_at   TIMESTAMP(6) WITH TIME ZONE
+);
@@ -0,0 +1,20 @@
+-- Every milestone query filters on user_id. Names match the indexes ddl-auto may already
+-- have created, so those are kept as they are.
+
+-- Listing by id, ownership checks, keyset pages sorted by id
+CREATE INDEX IF NOT EXISTS idx_milestones_user_id ON milestones (user_id, id);
+
+-- Completed filter with achieve date ranges and sorting
+CREATE INDEX IF NOT EXISTS idx_milestones_user_completed_achieve ON milestones (user_id, completed, achieve_date);
+
+-- Pending milestones only: overdue/upcoming counts and the default dashboard view
+CREATE INDEX IF NOT EXISTS idx_milestones_user_pending_achieve ON milestones (user_id, achieve_date)
+    WHERE NOT completed;
+
+-- Created date ranges and sorting
+CREATE INDEX IF NOT EXISTS idx_milestones_user_created ON milestones (user_id, created_date);
+
+-- Delta sync
+CREATE INDEX IF NOT EXISTS idx_milestones_user_change ON milestones (user_id, change_seq);
+CREATE INDEX IF NOT EXISTS idx_milestone_tombstones_user_change ON milestone_tombstones (user_id, change_seq);
+CREATE INDEX IF NOT EXISTS idx_milestone_tombstones_deleted_at ON milestone_tombstones (deleted_at);
@@ -0,0 +1,14 @@
+-- Full-text search over title and description. The vector is a generated column, so every
+-- write path (JPA, the JDBC updates, bulk imports) keeps it current without application code.
+-- The 'simple' configuration does no stemming or stop words: titles are short, often names,
+-- and prefix matching for type-ahead works on the words as typed.
+ALTER TABLE milestones ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(title, '')), 'A')
+            || setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+    ) STORED;
+
+-- btree_gin lets user_id share the GIN index, so a search only visits the caller's entries
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+CREATE INDEX IF NOT EXISTS idx_milestones_user_search ON milestones USING GIN (user_id, search_vector);
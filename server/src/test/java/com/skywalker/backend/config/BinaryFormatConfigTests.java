@@ -0,0 +1,39 @@
+package com.skywalker.backend.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skywalker.backend.dto.MilestoneDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BinaryFormatConfigTests {
+
+	private final ObjectMapper cbor = new BinaryFormatConfig()
+			.cborHttpMessageConverter(new Jackson2ObjectMapperBuilder()).getObjectMapper();
+
+	@Test
+	void writesDatesAsEpochDaysDespiteDtoPattern() throws Exception {
+		MilestoneDTO dto = new MilestoneDTO(7L, "Ship it", null, true,
+				LocalDate.of(2026, 10, 17), LocalDate.of(1970, 1, 2), null, 1L);
+
+		JsonNode tree = cbor.readTree(cbor.writeValueAsBytes(dto));
+
+		assertThat(tree.get("achieveDate").isIntegralNumber()).isTrue();
+		assertThat(tree.get("achieveDate").asLong()).isEqualTo(LocalDate.of(2026, 10, 17).toEpochDay());
+		assertThat(tree.get("createdDate").asLong()).isEqualTo(1);
+		assertThat(tree.get("completedDate").isNull()).isTrue();
+		assertThat(cbor.readValue(cbor.writeValueAsBytes(dto), MilestoneDTO.class)).isEqualTo(dto);
+	}
+
+	@Test
+	void readsIsoDateStringsToo() throws Exception {
+		byte[] body = cbor.writeValueAsBytes(Map.of("title", "x", "achieveDate", "2026-10-17"));
+
+		assertThat(cbor.readValue(body, MilestoneDTO.class).getAchieveDate()).isEqualTo(LocalDate.of(2026, 10, 17));
+	}
+}
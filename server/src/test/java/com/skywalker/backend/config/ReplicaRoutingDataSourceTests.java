@@ -0,0 +1,128 @@
+package com.skywalker.backend.config;
+
+import com.skywalker.backend.event.MilestoneChangedEvent;
+import com.skywalker.backend.security.AuthenticatedUser;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+// Both pools point at the test database; which pool lent the connection tells where a read went
+class ReplicaRoutingDataSourceTests {
+
+	private HikariDataSource primary;
+	private HikariDataSource replica;
+	private ReplicaHealth replicaHealth;
+	private RecentWriters recentWriters;
+
+	@BeforeEach
+	void setUp() {
+		primary = pool("primary", System.getenv("DB_URL"));
+		replica = pool("replica", System.getenv("DB_URL"));
+		replicaHealth = new ReplicaHealth(replica, Duration.ofSeconds(10));
+		recentWriters = new RecentWriters(Duration.ofSeconds(10));
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(new AuthenticatedUser(7L, "reader@example.com"), null, List.of()));
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+		primary.close();
+		replica.close();
+	}
+
+	@Test
+	void replicaServesNothingUntilProbed() {
+		assertThat(poolUsedBy(true)).isEqualTo("primary");
+	}
+
+	@Test
+	void readOnlyTransactionsGoToHealthyReplica() {
+		replicaHealth.check();
+
+		assertThat(poolUsedBy(true)).isEqualTo("replica");
+		assertThat(poolUsedBy(false)).isEqualTo("primary");
+	}
+
+	@Test
+	void recentWritersReadFromPrimary() {
+		replicaHealth.check();
+		recentWriters.onMilestoneChanged(new MilestoneChangedEvent(7L, 1L));
+
+		assertThat(poolUsedBy(true)).isEqualTo("primary");
+
+		recentWriters.onMilestoneChanged(new MilestoneChangedEvent(8L, 1L));
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(new AuthenticatedUser(9L, "other@example.com"), null, List.of()));
+		assertThat(poolUsedBy(true)).isEqualTo("replica");
+	}
+
+	@Test
+	void refusedReplicaConnectionFallsBackToPrimary() {
+		replicaHealth.check();
+		replica.close();
+
+		assertThat(poolUsedBy(true)).isEqualTo("primary");
+		assertThat(replicaHealth.isAvailable()).isFalse();
+		assertThat(replicaHealth.getUnavailableReason()).isNotBlank();
+	}
+
+	@Test
+	void stickyWindowDefaultsToAndMayNotUndercutMaxLag() {
+		assertThat(new ReplicaDataSourceProperties("url", null, null, null, Duration.ofSeconds(30)).stickyWindow())
+				.isEqualTo(Duration.ofSeconds(30));
+		assertThatIllegalArgumentException().isThrownBy(() -> new ReplicaDataSourceProperties("url", null, null,
+				Duration.ofSeconds(5), Duration.ofSeconds(30)));
+	}
+
+	// Pool that has a connection checked out while a statement runs in a transaction of the given kind
+	private String poolUsedBy(boolean readOnly) {
+		DataSource routing = routingDataSource();
+		TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(routing));
+		transaction.setReadOnly(readOnly);
+		return transaction.execute(status -> {
+			new JdbcTemplate(routing).queryForObject("SELECT 1", Integer.class);
+			if (hasActiveConnections(replica)) {
+				return "replica";
+			}
+			return hasActiveConnections(primary) ? "primary" : "none";
+		});
+	}
+
+	// A pool only exists once a connection was first asked for
+	private static boolean hasActiveConnections(HikariDataSource pool) {
+		return !pool.isClosed() && pool.getHikariPoolMXBean() != null
+				&& pool.getHikariPoolMXBean().getActiveConnections() > 0;
+	}
+
+	private DataSource routingDataSource() {
+		ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica, replicaHealth, recentWriters);
+		routing.afterPropertiesSet();
+		return new LazyConnectionDataSourceProxy(routing);
+	}
+
+	private static HikariDataSource pool(String name, String url) {
+		HikariDataSource dataSource = new HikariDataSource();
+		dataSource.setPoolName(name);
+		dataSource.setJdbcUrl(url);
+		dataSource.setUsername(System.getenv("DB_USER"));
+		dataSource.setPassword(System.getenv("DB_PASSWORD"));
+		dataSource.setMaximumPoolSize(2);
+		dataSource.setConnectionTimeout(1000);
+		return dataSource;
+	}
+}
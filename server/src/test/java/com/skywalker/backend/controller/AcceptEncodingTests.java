@@ -0,0 +1,38 @@
+package com.skywalker.backend.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AcceptEncodingTests {
+
+	@Test
+	void acceptsGzipAndItsAlias() {
+		assertThat(AcceptEncoding.acceptsGzip("gzip, deflate, br")).isTrue();
+		assertThat(AcceptEncoding.acceptsGzip("x-gzip")).isTrue();
+		assertThat(AcceptEncoding.acceptsGzip("GZIP;q=0.5")).isTrue();
+		assertThat(AcceptEncoding.acceptsGzip("br;q=1.0, gzip;q=0.8, *;q=0.1")).isTrue();
+	}
+
+	@Test
+	void honoursZeroWeight() {
+		assertThat(AcceptEncoding.acceptsGzip("gzip;q=0")).isFalse();
+		assertThat(AcceptEncoding.acceptsGzip("gzip; q=0.000, deflate")).isFalse();
+		assertThat(AcceptEncoding.acceptsGzip("*, gzip;q=0")).isFalse();
+		assertThat(AcceptEncoding.acceptsGzip("gzip;q=abc")).isFalse();
+	}
+
+	@Test
+	void wildcardCoversUnlistedGzip() {
+		assertThat(AcceptEncoding.acceptsGzip("*")).isTrue();
+		assertThat(AcceptEncoding.acceptsGzip("br, *;q=0")).isFalse();
+	}
+
+	@Test
+	void noHeaderOrOtherCodingsMeanNoGzip() {
+		assertThat(AcceptEncoding.acceptsGzip(null)).isFalse();
+		assertThat(AcceptEncoding.acceptsGzip("")).isFalse();
+		assertThat(AcceptEncoding.acceptsGzip("identity")).isFalse();
+		assertThat(AcceptEncoding.acceptsGzip("notgzip, br")).isFalse();
+	}
+}
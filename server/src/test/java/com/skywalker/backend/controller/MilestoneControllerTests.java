@@ -0,0 +1,720 @@
+package com.skywalker.backend.controller;
+
+import com.skywalker.backend.config.Bulkhead;
+import com.skywalker.backend.dto.MilestoneBatchItem;
+import com.skywalker.backend.dto.MilestoneBatchResult;
+import com.skywalker.backend.dto.MilestoneChanges;
+import com.skywalker.backend.dto.MilestoneDTO;
+import com.skywalker.backend.dto.MilestoneImportError;
+import com.skywalker.backend.dto.MilestoneImportResult;
+import com.skywalker.backend.dto.MilestonePage;
+import com.skywalker.backend.dto.MilestonePatch;
+import com.skywalker.backend.dto.StreamTicket;
+import com.skywalker.backend.model.User;
+import com.skywalker.backend.repository.UserRepository;
+import com.skywalker.backend.security.JWTUtils;
+import com.skywalker.backend.service.MilestoneRollupService;
+import com.skywalker.backend.service.MilestoneSyncService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+// Runs with query budgets enforced, so every call here also checks its handler's budget
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class MilestoneControllerTests {
+
+	@Autowired
+	private TestRestTemplate rest;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JWTUtils jwtUtils;
+
+	@Autowired
+	private Bulkhead exportBulkhead;
+
+	@Autowired
+	private Bulkhead importBulkhead;
+
+	@Autowired
+	private MilestoneRollupService rollupService;
+
+	@Autowired
+	private MilestoneSyncService syncService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private HttpHeaders headers;
+
+	@BeforeEach
+	void setUp() {
+		headers = newUser();
+	}
+
+	@Test
+	void firstWriteRebuildsRollupWithinBudget() {
+		ResponseEntity<MilestoneDTO> created = create("First");
+
+		assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+		assertThat(created.getBody().getTitle()).isEqualTo("First");
+		assertThat(exchange(HttpMethod.POST, "/api/milestones/" + created.getBody().getId() + "/complete", null,
+				MilestoneDTO.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+	}
+
+	@Test
+	void patchRejectsCompletionDateOnMilestoneMarkedIncomplete() {
+		MilestonePatch patch = new MilestonePatch();
+		patch.setCompleted(false);
+		patch.setCompletedDate(LocalDate.now());
+
+		assertThat(patch(create("Contradiction").getBody().getId(), patch).getStatusCode())
+				.isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
+	@Test
+	void patchIgnoresCompletionDateWhileMilestoneStaysIncomplete() {
+		MilestonePatch patch = new MilestonePatch();
+		patch.setCompletedDate(LocalDate.now().minusDays(1));
+
+		ResponseEntity<MilestoneDTO> patched = patch(create("Still open").getBody().getId(), patch);
+
+		assertThat(patched.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(patched.getBody().isCompleted()).isFalse();
+		assertThat(patched.getBody().getCompletedDate()).isNull();
+	}
+
+	@Test
+	void patchUncompletingClearsCompletionDate() {
+		long id = create("Reopened").getBody().getId();
+		exchange(HttpMethod.POST, "/api/milestones/" + id + "/complete", null, MilestoneDTO.class);
+		MilestonePatch patch = new MilestonePatch();
+		patch.setCompleted(false);
+
+		MilestoneDTO reopened = patch(id, patch).getBody();
+
+		assertThat(reopened.isCompleted()).isFalse();
+		assertThat(reopened.getCompletedDate()).isNull();
+	}
+
+	@Test
+	void otherUsersMilestonesAreNotFound() {
+		long id = create("Mine").getBody().getId();
+		headers = newUser();
+		MilestonePatch patch = new MilestonePatch();
+		patch.setTitle("Theirs");
+
+		assertThat(patch(id, patch).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+		assertThat(exchange(HttpMethod.POST, "/api/milestones/" + id + "/complete", null, String.class)
+				.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+		assertThat(exchange(HttpMethod.GET, "/api/milestones/" + id, null, String.class).getStatusCode())
+				.isEqualTo(HttpStatus.NOT_FOUND);
+		assertThat(exchange(HttpMethod.DELETE, "/api/milestones/" + id, null, String.class).getStatusCode())
+				.isEqualTo(HttpStatus.NOT_FOUND);
+	}
+
+	@Test
+	void streamOpensWithTicketOnly() throws Exception {
+		ResponseEntity<StreamTicket> ticket =
+				exchange(HttpMethod.POST, "/api/milestones/stream/ticket", null, StreamTicket.class);
+		assertThat(ticket.getStatusCode()).isEqualTo(HttpStatus.OK);
+		String sessionToken = headers.getFirst(HttpHeaders.AUTHORIZATION).substring("Bearer ".length());
+
+		assertThat(openStream("?ticket=" + ticket.getBody().getTicket())).isTrue();
+		assertThat(openStream("?ticket=" + sessionToken)).isFalse();
+		assertThat(openStream("?access_token=" + sessionToken)).isFalse();
+
+		HttpRequest ticketAsBearer = HttpRequest.newBuilder(URI.create(rest.getRootUri() + "/api/milestones"))
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + ticket.getBody().getTicket())
+				.build();
+		assertThat(send(ticketAsBearer).statusCode()).isNotEqualTo(HttpStatus.OK.value());
+	}
+
+	// Only reads the status line and headers, then hangs up: an open event stream never ends on its own
+	private boolean openStream(String query) throws Exception {
+		HttpResponse<InputStream> response = send(
+				HttpRequest.newBuilder(URI.create(rest.getRootUri() + "/api/milestones/stream" + query)).build());
+		return response.statusCode() == HttpStatus.OK.value() && response.headers().firstValue("Content-Type")
+				.map(MediaType::parseMediaType).filter(MediaType.TEXT_EVENT_STREAM::isCompatibleWith).isPresent();
+	}
+
+	// Plain client that does not follow the login redirect, so a rejected token shows as such
+	private static HttpResponse<InputStream> send(HttpRequest request) throws Exception {
+		try (HttpClient client = HttpClient.newHttpClient()) {
+			HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+			response.body().close();
+			return response;
+		}
+	}
+
+	@Test
+	void listIsNegotiatedAndRefusesUnsupportedFormats() {
+		create("Listed");
+
+		assertThat(list(MediaType.ALL).getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+		assertThat(list(MediaType.APPLICATION_CBOR).getHeaders().getContentType())
+				.isEqualTo(MediaType.APPLICATION_CBOR);
+		assertThat(list(MediaType.parseMediaType("text/csv")).getStatusCode()).isEqualTo(HttpStatus.NOT_ACCEPTABLE);
+	}
+
+	@Test
+	void exportReturnsItsPermitOnce() {
+		create("Exported");
+
+		for (int i = 0; i < 3; i++) {
+			ResponseEntity<String> export = exchange(HttpMethod.GET, "/api/milestones/export", null, String.class);
+			assertThat(export.getStatusCode()).isEqualTo(HttpStatus.OK);
+			assertThat(export.getBody()).contains("Exported");
+		}
+
+		assertThat(exportBulkhead.getInFlight()).isZero();
+	}
+
+	@Test
+	void searchTreatsOperatorCharactersAsSeparators() {
+		create("Trip to Paris");
+
+		for (String q : List.of("trip:*&|!paris", "(trip) <-> 'paris'", "\\trip\"", "&&", "日本 Ünïcode ٣")) {
+			ResponseEntity<MilestonePage> page = rest.exchange("/api/milestones/search?q={q}", HttpMethod.GET,
+					new HttpEntity<>(headers), MilestonePage.class, q);
+			assertThat(page.getStatusCode()).as(q).isEqualTo(HttpStatus.OK);
+		}
+	}
+
+	@Test
+	void searchPagesThroughRanksWithoutGapsOrRepeats() {
+		// Equal ranks tie-break on id; differing ranks exercise the REAL comparison in the cursor
+		Set<Long> expected = new HashSet<>();
+		for (int i = 0; i < 4; i++) {
+			expected.add(create("Launch rocket").getBody().getId());
+			expected.add(create("Launch " + "launch party ".repeat(i + 1)).getBody().getId());
+		}
+
+		List<Long> seen = new ArrayList<>();
+		String cursor = "";
+		do {
+			MilestonePage page = rest.exchange("/api/milestones/search?q=launch&limit=3&cursor={cursor}",
+					HttpMethod.GET, new HttpEntity<>(headers), MilestonePage.class, cursor).getBody();
+			page.getItems().forEach(item -> seen.add(item.getId()));
+			cursor = page.getNextCursor();
+		} while (cursor != null);
+
+		assertThat(seen).doesNotHaveDuplicates().containsExactlyInAnyOrderElementsOf(expected);
+	}
+
+	@Test
+	void keysetPagesPutMissingSortValuesLastInBothDirections() {
+		LocalDate today = LocalDate.now();
+		List<MilestoneDTO> created = new ArrayList<>();
+		for (LocalDate date : Arrays.asList(today.plusDays(3), today.plusDays(1), null, today.plusDays(1), null,
+				today.plusDays(2))) {
+			created.add(create("Dated", date).getBody());
+		}
+		Comparator<MilestoneDTO> byDateThenId = Comparator.comparing(MilestoneDTO::getAchieveDate)
+				.thenComparing(MilestoneDTO::getId);
+		Comparator<MilestoneDTO> byId = Comparator.comparing(MilestoneDTO::getId);
+
+		for (boolean descending : List.of(false, true)) {
+			List<Long> expected = Stream.concat(
+					created.stream().filter(m -> m.getAchieveDate() != null)
+							.sorted(descending ? byDateThenId.reversed() : byDateThenId),
+					created.stream().filter(m -> m.getAchieveDate() == null)
+							.sorted(descending ? byId.reversed() : byId))
+					.map(MilestoneDTO::getId).toList();
+
+			assertThat(pageThrough("sort=achieveDate&direction=" + (descending ? "desc" : "asc")))
+					.as(descending ? "desc" : "asc").containsExactlyElementsOf(expected);
+		}
+	}
+
+	@Test
+	void keysetPagesByIdDescending() {
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			ids.add(create("Numbered").getBody().getId());
+		}
+
+		assertThat(pageThrough("direction=desc")).containsExactlyElementsOf(ids.reversed());
+	}
+
+	@Test
+	void keysetPageRejectsMalformedCursorSortAndDirection() {
+		assertThat(exchange(HttpMethod.GET, "/api/milestones/page?cursor=not-a-cursor", null, String.class)
+				.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+		assertThat(exchange(HttpMethod.GET, "/api/milestones/page?sort=title", null, String.class)
+				.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+		for (String direction : List.of("dsc", "DESCENDING", "")) {
+			assertThat(exchange(HttpMethod.GET, "/api/milestones/page?direction=" + direction, null, String.class)
+					.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+		}
+		assertThat(exchange(HttpMethod.GET, "/api/milestones/page?direction=DESC", null, String.class)
+				.getStatusCode()).isEqualTo(HttpStatus.OK);
+	}
+
+	@Test
+	void batchesReportEveryItemInRequestOrder() {
+		List<MilestoneDTO> drafts = new ArrayList<>();
+		for (String title : List.of("One", "Two", "Three")) {
+			MilestoneDTO dto = new MilestoneDTO();
+			dto.setTitle(title);
+			drafts.add(dto);
+		}
+		MilestoneBatchResult created = batch(HttpMethod.POST, "/api/milestones/batch", drafts);
+		assertThat(created.getResults()).extracting(MilestoneBatchItem::getIndex, MilestoneBatchItem::getStatus)
+				.containsExactly(tuple(0, 201), tuple(1, 201), tuple(2, 201));
+		assertThat(created.getResults()).extracting(item -> item.getMilestone().getTitle())
+				.containsExactly("One", "Two", "Three");
+		List<Long> ids = created.getResults().stream().map(MilestoneBatchItem::getId).toList();
+		HttpHeaders owner = headers;
+		headers = newUser();
+		long theirs = create("Theirs").getBody().getId();
+		headers = owner;
+
+		MilestoneDTO rename = new MilestoneDTO();
+		rename.setId(ids.get(0));
+		rename.setTitle("Renamed");
+		MilestoneDTO anonymous = new MilestoneDTO();
+		anonymous.setTitle("No id");
+		MilestoneDTO notMine = new MilestoneDTO();
+		notMine.setId(theirs);
+		notMine.setTitle("Hijacked");
+		MilestoneBatchResult updated = batch(HttpMethod.PUT, "/api/milestones/batch", List.of(rename, anonymous, notMine));
+		assertThat(updated.getResults()).extracting(MilestoneBatchItem::getStatus).containsExactly(200, 400, 404);
+		assertThat(updated.getResults().get(0).getMilestone().getTitle()).isEqualTo("Renamed");
+		assertThat(updated.getSucceeded()).isEqualTo(1);
+		assertThat(updated.getFailed()).isEqualTo(2);
+
+		MilestoneBatchResult completed = batch(HttpMethod.POST, "/api/milestones/batch/complete",
+				Arrays.asList(ids.get(1), theirs, ids.get(1), null));
+		assertThat(completed.getResults()).extracting(MilestoneBatchItem::getStatus).containsExactly(200, 404, 200, 404);
+		assertThat(completed.getResults().get(0).getMilestone().isCompleted()).isTrue();
+
+		MilestoneBatchResult deleted = batch(HttpMethod.POST, "/api/milestones/batch/delete",
+				List.of(ids.get(2), theirs, ids.get(2)));
+		assertThat(deleted.getResults()).extracting(MilestoneBatchItem::getStatus).containsExactly(204, 404, 204);
+		assertThat(exchange(HttpMethod.GET, "/api/milestones/" + ids.get(2), null, String.class).getStatusCode())
+				.isEqualTo(HttpStatus.NOT_FOUND);
+	}
+
+	@Test
+	void fullBatchIsInsertedInJdbcBatchesWithinBudget() {
+		// An existing milestone, so the rollup is updated incrementally rather than rebuilt
+		create("Existing");
+		List<MilestoneDTO> drafts = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			MilestoneDTO dto = new MilestoneDTO();
+			dto.setTitle("Bulk " + i);
+			drafts.add(dto);
+		}
+
+		MilestoneBatchResult created = batch(HttpMethod.POST, "/api/milestones/batch", drafts);
+
+		assertThat(created.getResults()).hasSize(500).allMatch(item -> item.getStatus() == 201);
+		assertThat(listAll()).hasSize(501);
+	}
+
+	@Test
+	void emptyBatchIsRejected() {
+		assertThat(exchange(HttpMethod.POST, "/api/milestones/batch/complete", List.of(), String.class)
+				.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
+	@Test
+	void conditionalGetsFollowTheCollectionVersion() {
+		long id = create("Cached").getBody().getId();
+		ResponseEntity<byte[]> first = list(MediaType.APPLICATION_JSON);
+		String etag = first.getHeaders().getETag();
+		long lastModified = first.getHeaders().getLastModified();
+		assertThat(etag).startsWith("W/\"");
+		assertThat(lastModified).isPositive();
+
+		assertThat(conditionalGet("/api/milestones", HttpHeaders.IF_NONE_MATCH, etag).getStatusCode())
+				.isEqualTo(HttpStatus.NOT_MODIFIED);
+		assertThat(conditionalGet("/api/milestones/" + id, HttpHeaders.IF_NONE_MATCH, etag).getStatusCode())
+				.isEqualTo(HttpStatus.NOT_MODIFIED);
+		assertThat(conditionalGet("/api/milestones", HttpHeaders.IF_MODIFIED_SINCE,
+				first.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED)).getStatusCode())
+				.isEqualTo(HttpStatus.NOT_MODIFIED);
+
+		exchange(HttpMethod.POST, "/api/milestones/" + id + "/complete", null, MilestoneDTO.class);
+
+		ResponseEntity<String> changed = conditionalGet("/api/milestones", HttpHeaders.IF_NONE_MATCH, etag);
+		assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(changed.getHeaders().getETag()).isNotEqualTo(etag);
+		assertThat(changed.getBody()).contains("\"completed\":true");
+	}
+
+	@Test
+	void writesThatMatchNothingKeepTheCollectionVersion() {
+		HttpHeaders owner = headers;
+		headers = newUser();
+		long theirs = create("Theirs").getBody().getId();
+		headers = owner;
+		create("Mine");
+		String etag = list(MediaType.APPLICATION_JSON).getHeaders().getETag();
+		MilestonePatch patch = new MilestonePatch();
+		patch.setTitle("Taken");
+		MilestoneDTO replacement = new MilestoneDTO();
+		replacement.setTitle("Taken");
+
+		assertThat(patch(theirs, patch).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+		assertThat(exchange(HttpMethod.PUT, "/api/milestones/" + theirs, replacement, String.class).getStatusCode())
+				.isEqualTo(HttpStatus.NOT_FOUND);
+		assertThat(exchange(HttpMethod.POST, "/api/milestones/" + theirs + "/complete", null, String.class)
+				.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+		replacement.setId(theirs);
+		assertThat(batch(HttpMethod.PUT, "/api/milestones/batch", List.of(replacement)).getResults())
+				.extracting(MilestoneBatchItem::getStatus).containsExactly(404);
+		assertThat(batch(HttpMethod.POST, "/api/milestones/batch/complete", List.of(theirs, -1L)).getResults())
+				.extracting(MilestoneBatchItem::getStatus).containsExactly(404, 404);
+		assertThat(batch(HttpMethod.POST, "/api/milestones/batch/delete", List.of(theirs)).getResults())
+				.extracting(MilestoneBatchItem::getStatus).containsExactly(404);
+
+		assertThat(conditionalGet("/api/milestones", HttpHeaders.IF_NONE_MATCH, etag).getStatusCode())
+				.isEqualTo(HttpStatus.NOT_MODIFIED);
+	}
+
+	@Test
+	void collectionWithoutWritesHasNoValidator() {
+		ResponseEntity<byte[]> empty = list(MediaType.APPLICATION_JSON);
+
+		assertThat(empty.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(empty.getHeaders().getETag()).isNull();
+	}
+
+	private ResponseEntity<String> conditionalGet(String path, String header, String value) {
+		HttpHeaders conditional = new HttpHeaders();
+		conditional.addAll(headers);
+		conditional.set(header, value);
+		return rest.exchange(path, HttpMethod.GET, new HttpEntity<>(conditional), String.class);
+	}
+
+	@Test
+	void deltaSyncReturnsChangesAndTombstonesSinceCursor() {
+		long kept = create("Kept").getBody().getId();
+		long edited = create("Edited").getBody().getId();
+		long removed = create("Removed").getBody().getId();
+		MilestoneChanges full = changes("");
+		assertThat(full.isFull()).isTrue();
+		assertThat(full.getUpserts()).extracting(MilestoneDTO::getId).containsExactlyInAnyOrder(kept, edited, removed);
+
+		MilestonePatch rename = new MilestonePatch();
+		rename.setTitle("Edited again");
+		patch(edited, rename);
+		exchange(HttpMethod.DELETE, "/api/milestones/" + removed, null, Void.class);
+
+		MilestoneChanges delta = changes(full.getCursor());
+		assertThat(delta.isFull()).isFalse();
+		assertThat(delta.getUpserts()).extracting(MilestoneDTO::getTitle).containsExactly("Edited again");
+		assertThat(delta.getDeleted()).containsExactly(removed);
+		assertThat(Long.parseLong(delta.getCursor())).isGreaterThan(Long.parseLong(full.getCursor()));
+
+		MilestoneChanges caughtUp = changes(delta.getCursor());
+		assertThat(caughtUp.getUpserts()).isEmpty();
+		assertThat(caughtUp.getDeleted()).isEmpty();
+		assertThat(caughtUp.getCursor()).isEqualTo(delta.getCursor());
+	}
+
+	@Test
+	void deltaSyncRefusesCursorsItCannotAnswer() {
+		create("Synced");
+		String cursor = changes("").getCursor();
+
+		assertThat(changesStatus(Long.toString(Long.parseLong(cursor) + 1))).isEqualTo(HttpStatus.GONE);
+		assertThat(changesStatus("-1")).isEqualTo(HttpStatus.GONE);
+		assertThat(changesStatus("abc")).isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
+	@Test
+	void purgedTombstonesExpireOlderCursors() {
+		long removed = create("Forgotten").getBody().getId();
+		String beforeDelete = changes("").getCursor();
+		exchange(HttpMethod.DELETE, "/api/milestones/" + removed, null, Void.class);
+		String afterDelete = changes("").getCursor();
+		jdbcTemplate.update("UPDATE milestone_tombstones SET deleted_at = now() - interval '365 days'"
+				+ " WHERE milestone_id = ?", removed);
+
+		syncService.purgeTombstones();
+
+		assertThat(changesStatus(beforeDelete)).isEqualTo(HttpStatus.GONE);
+		assertThat(changesStatus(afterDelete)).isEqualTo(HttpStatus.OK);
+	}
+
+	private MilestoneChanges changes(String since) {
+		ResponseEntity<MilestoneChanges> response = rest.exchange("/api/milestones/changes?since={since}",
+				HttpMethod.GET, new HttpEntity<>(headers), MilestoneChanges.class, since);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		return response.getBody();
+	}
+
+	private HttpStatusCode changesStatus(String since) {
+		return rest.exchange("/api/milestones/changes?since={since}", HttpMethod.GET, new HttpEntity<>(headers),
+				String.class, since).getStatusCode();
+	}
+
+	@Test
+	void rollupDeltasAgreeWithRebuild() {
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			ids.add(create("Counted").getBody().getId());
+		}
+		Long userId = exchange(HttpMethod.GET, "/api/milestones/" + ids.get(0), null, MilestoneDTO.class)
+				.getBody().getUserId();
+		exchange(HttpMethod.POST, "/api/milestones/" + ids.get(0) + "/complete", null, MilestoneDTO.class);
+		batch(HttpMethod.POST, "/api/milestones/batch/complete", List.of(ids.get(1), ids.get(2), ids.get(3)));
+		MilestonePatch backdate = new MilestonePatch();
+		backdate.setCompletedDate(LocalDate.now().minusDays(3));
+		patch(ids.get(1), backdate);
+		MilestonePatch reopen = new MilestonePatch();
+		reopen.setCompleted(false);
+		patch(ids.get(2), reopen);
+		exchange(HttpMethod.DELETE, "/api/milestones/" + ids.get(3), null, Void.class);
+
+		Map<String, Object> incremental = rollupSnapshot(userId);
+		rollupService.rebuild(userId);
+
+		assertThat(incremental).containsEntry("total", 4L).containsEntry("completed", 2L);
+		assertThat(rollupSnapshot(userId)).isEqualTo(incremental);
+	}
+
+	@Test
+	void importMergesValidRowsInLineOrderAndReportsTheRest() {
+		String csv = "id,completed,title,achieveDate,completedDate\n"
+				+ ",false,Alpha,2030-01-02,\n"
+				+ ",true,\"Beta, quoted\",,2024-05-06\n"
+				+ ",,,2030-01-02,\n"
+				+ ",,Bad date,someday,\n"
+				+ ",false,Reopened,,2024-05-06\n"
+				+ ",,Gamma,,\n";
+
+		MilestoneImportResult result = importFile("csv", csv.getBytes(StandardCharsets.UTF_8), null);
+
+		assertThat(result.getImported()).isEqualTo(3);
+		assertThat(result.getFailed()).isEqualTo(3);
+		assertThat(result.getErrors()).extracting(MilestoneImportError::getLine).containsExactly(4, 5, 6);
+		List<MilestoneDTO> imported = listAll();
+		assertThat(imported).extracting(MilestoneDTO::getTitle).containsExactlyInAnyOrder("Alpha", "Beta, quoted", "Gamma");
+		Map<String, Long> idByTitle = new HashMap<>();
+		imported.forEach(milestone -> idByTitle.put(milestone.getTitle(), milestone.getId()));
+		assertThat(idByTitle.get("Alpha")).isLessThan(idByTitle.get("Beta, quoted"));
+		assertThat(idByTitle.get("Beta, quoted")).isLessThan(idByTitle.get("Gamma"));
+
+		Long userId = imported.get(0).getUserId();
+		Map<String, Object> merged = rollupSnapshot(userId);
+		rollupService.rebuild(userId);
+		assertThat(merged).containsEntry("total", 3L).containsEntry("completed", 1L)
+				.containsEntry("needs_rebuild", false);
+		assertThat(rollupSnapshot(userId)).isEqualTo(merged);
+	}
+
+	@Test
+	void importRejectsBrokenGzipAndReturnsItsPermit() throws IOException {
+		ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+		try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+			out.write("{\"title\":\"Truncated\"}\n".repeat(100).getBytes(StandardCharsets.UTF_8));
+		}
+		byte[] truncated = Arrays.copyOf(gzipped.toByteArray(), 20);
+		HttpHeaders importHeaders = new HttpHeaders();
+		importHeaders.addAll(headers);
+		importHeaders.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+
+		for (byte[] body : List.of("not gzip".getBytes(StandardCharsets.UTF_8), truncated)) {
+			assertThat(rest.exchange("/api/milestones/import?format=ndjson", HttpMethod.POST,
+					new HttpEntity<>(body, importHeaders), String.class).getStatusCode())
+					.isEqualTo(HttpStatus.BAD_REQUEST);
+		}
+		assertThat(importBulkhead.getInFlight()).isZero();
+		assertThat(listAll()).isEmpty();
+	}
+
+	@Test
+	void importReportsNulCharactersPerRow() {
+		String ndjson = "{\"title\":\"Clean\"}\n"
+				+ "{\"title\":\"Nul\\u0000title\"}\n"
+				+ "{\"title\":\"Nul description\",\"description\":\"a\\u0000b\"}\n";
+
+		MilestoneImportResult result = importFile("ndjson", ndjson.getBytes(StandardCharsets.UTF_8), null);
+
+		assertThat(result.getImported()).isEqualTo(1);
+		assertThat(result.getErrors()).extracting(MilestoneImportError::getLine).containsExactly(2, 3);
+		assertThat(listAll()).extracting(MilestoneDTO::getTitle).containsExactly("Clean");
+	}
+
+	@Test
+	void reimportedExportMergesIntoTheMilestonesItCameFrom() {
+		long kept = create("Kept").getBody().getId();
+		long edited = create("Edited").getBody().getId();
+		String export = exchange(HttpMethod.GET, "/api/milestones/export", null, String.class).getBody();
+		HttpHeaders owner = headers;
+		headers = newUser();
+		long theirs = create("Theirs").getBody().getId();
+		headers = owner;
+		String upload = export.replace(",Edited,", ",Renamed,")
+				+ theirs + ",\"Copied\",,false,,,\n"
+				+ kept + ",\"Twice\",,false,,,\n";
+
+		MilestoneImportResult first = importFile("csv", upload.getBytes(StandardCharsets.UTF_8), null);
+		MilestoneImportResult retried = importFile("csv", upload.getBytes(StandardCharsets.UTF_8), null);
+
+		assertThat(first.getImported()).isEqualTo(3);
+		assertThat(first.getErrors()).extracting(MilestoneImportError::getLine).containsExactly(5);
+		assertThat(retried.getImported()).isEqualTo(3);
+		List<MilestoneDTO> all = listAll();
+		assertThat(all).extracting(MilestoneDTO::getTitle).containsExactlyInAnyOrder("Kept", "Renamed", "Copied", "Copied");
+		assertThat(all).extracting(MilestoneDTO::getId).contains(kept, edited).doesNotContain(theirs);
+		assertThat(exchange(HttpMethod.GET, "/api/milestones/" + edited, null, MilestoneDTO.class).getBody().getTitle())
+				.isEqualTo("Renamed");
+	}
+
+	@Test
+	void importedIdsNeverCollideWithCreatedOnes() throws IOException {
+		Set<Long> ids = new HashSet<>();
+		ids.add(create("Before").getBody().getId());
+		StringBuilder ndjson = new StringBuilder();
+		for (int i = 0; i < 120; i++) {
+			ndjson.append("{\"title\":\"Imported ").append(i).append("\"}\n");
+		}
+		ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+		try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+			out.write(ndjson.toString().getBytes(StandardCharsets.UTF_8));
+		}
+
+		assertThat(importFile("ndjson", gzipped.toByteArray(), "gzip").getImported()).isEqualTo(120);
+		// More than a block, so Hibernate runs through what is left of its pool and into new blocks
+		List<MilestoneDTO> drafts = new ArrayList<>();
+		for (int i = 0; i < 60; i++) {
+			MilestoneDTO dto = new MilestoneDTO();
+			dto.setTitle("Created " + i);
+			drafts.add(dto);
+		}
+		assertThat(batch(HttpMethod.POST, "/api/milestones/batch", drafts).getResults())
+				.allMatch(item -> item.getStatus() == 201);
+		assertThat(importFile("ndjson", "{\"title\":\"Again\"}\n".getBytes(StandardCharsets.UTF_8), null)
+				.getImported()).isEqualTo(1);
+		ids.add(create("Last").getBody().getId());
+
+		List<MilestoneDTO> all = listAll();
+		assertThat(all).hasSize(183);
+		all.forEach(milestone -> ids.add(milestone.getId()));
+		assertThat(ids).hasSize(183).allMatch(id -> id > 0);
+	}
+
+	private MilestoneImportResult importFile(String format, byte[] body, String contentEncoding) {
+		HttpHeaders importHeaders = new HttpHeaders();
+		importHeaders.addAll(headers);
+		importHeaders.setContentType(MediaType.TEXT_PLAIN);
+		if (contentEncoding != null) {
+			importHeaders.set(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+		}
+		ResponseEntity<MilestoneImportResult> response = rest.exchange("/api/milestones/import?format={format}",
+				HttpMethod.POST, new HttpEntity<>(body, importHeaders), MilestoneImportResult.class, format);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		return response.getBody();
+	}
+
+	private List<MilestoneDTO> listAll() {
+		ResponseEntity<MilestoneDTO[]> response = exchange(HttpMethod.GET, "/api/milestones", null, MilestoneDTO[].class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		return Arrays.asList(response.getBody());
+	}
+
+	// Counts and per-day completions of the user's rollup, zero days dropped
+	private Map<String, Object> rollupSnapshot(Long userId) {
+		Map<String, Object> snapshot = new HashMap<>(jdbcTemplate.queryForMap(
+				"SELECT total_count AS total, completed_count AS completed, needs_rebuild FROM milestone_rollups"
+						+ " WHERE user_id = ?", userId));
+		snapshot.put("days", jdbcTemplate.queryForList("SELECT day || '=' || completions FROM milestone_completion_days"
+				+ " WHERE user_id = ? AND completions <> 0 ORDER BY day", String.class, userId));
+		return snapshot;
+	}
+
+	private MilestoneBatchResult batch(HttpMethod method, String path, List<?> body) {
+		ResponseEntity<MilestoneBatchResult> response = exchange(method, path, body, MilestoneBatchResult.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		return response.getBody();
+	}
+
+	// Ids of every milestone, following nextCursor two rows at a time
+	private List<Long> pageThrough(String parameters) {
+		List<Long> ids = new ArrayList<>();
+		String cursor = "";
+		do {
+			MilestonePage page = rest.exchange("/api/milestones/page?limit=2&" + parameters + "&cursor={cursor}",
+					HttpMethod.GET, new HttpEntity<>(headers), MilestonePage.class, cursor).getBody();
+			page.getItems().forEach(item -> ids.add(item.getId()));
+			cursor = page.getNextCursor();
+		} while (cursor != null);
+		return ids;
+	}
+
+	private ResponseEntity<byte[]> list(MediaType accept) {
+		HttpHeaders listHeaders = new HttpHeaders();
+		listHeaders.addAll(headers);
+		listHeaders.setAccept(List.of(accept));
+		return rest.exchange("/api/milestones", HttpMethod.GET, new HttpEntity<>(listHeaders), byte[].class);
+	}
+
+	private HttpHeaders newUser() {
+		User user = new User();
+		user.setEmail("milestones-" + UUID.randomUUID() + "@example.com");
+		user.setPassword("unused");
+		HttpHeaders userHeaders = new HttpHeaders();
+		userHeaders.setBearerAuth(jwtUtils.generateToken(userRepository.save(user)));
+		return userHeaders;
+	}
+
+	private ResponseEntity<MilestoneDTO> patch(long id, MilestonePatch patch) {
+		return exchange(HttpMethod.PATCH, "/api/milestones/" + id, patch, MilestoneDTO.class);
+	}
+
+	private ResponseEntity<MilestoneDTO> create(String title) {
+		return create(title, LocalDate.now().plusDays(7));
+	}
+
+	private ResponseEntity<MilestoneDTO> create(String title, LocalDate achieveDate) {
+		MilestoneDTO dto = new MilestoneDTO();
+		dto.setTitle(title);
+		dto.setAchieveDate(achieveDate);
+		return exchange(HttpMethod.POST, "/api/milestones", dto, MilestoneDTO.class);
+	}
+
+	private <T> ResponseEntity<T> exchange(HttpMethod method, String path, Object body, Class<T> type) {
+		return rest.exchange(path, method, new HttpEntity<>(body, headers), type);
+	}
+}
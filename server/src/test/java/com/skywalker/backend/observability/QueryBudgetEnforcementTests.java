@@ -0,0 +1,91 @@
+package com.skywalker.backend.observability;
+
+import com.skywalker.backend.model.User;
+import com.skywalker.backend.repository.UserRepository;
+import com.skywalker.backend.security.JWTUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Over real HTTP: an overrun has to fail the response the client receives, not just the server thread
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(QueryBudgetEnforcementTests.BudgetedController.class)
+class QueryBudgetEnforcementTests {
+
+	@Autowired
+	private TestRestTemplate rest;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JWTUtils jwtUtils;
+
+	private HttpHeaders headers;
+
+	@BeforeEach
+	void setUp() {
+		User user = new User();
+		user.setEmail("budget-" + UUID.randomUUID() + "@example.com");
+		user.setPassword("unused");
+		headers = new HttpHeaders();
+		headers.setBearerAuth(jwtUtils.generateToken(userRepository.save(user)));
+	}
+
+	@Test
+	void requestWithinBudgetSucceeds() {
+		assertThat(get("/test/budget/within").getStatusCode()).isEqualTo(HttpStatus.OK);
+	}
+
+	@Test
+	void requestOverBudgetFailsForTheClient() {
+		assertThat(get("/test/budget/over").getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+	}
+
+	private ResponseEntity<String> get(String path) {
+		return rest.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+	}
+
+	@RestController
+	static class BudgetedController {
+
+		private final JdbcTemplate jdbcTemplate;
+
+		BudgetedController(JdbcTemplate jdbcTemplate) {
+			this.jdbcTemplate = jdbcTemplate;
+		}
+
+		@GetMapping("/test/budget/within")
+		@QueryBudget(2)
+		public ResponseEntity<String> within() {
+			return ResponseEntity.ok(twoStatements());
+		}
+
+		@GetMapping("/test/budget/over")
+		@QueryBudget(1)
+		public ResponseEntity<String> over() {
+			return ResponseEntity.ok(twoStatements());
+		}
+
+		// Larger than the response buffer, so writing the body commits the response
+		private String twoStatements() {
+			return jdbcTemplate.queryForObject("SELECT 'a'", String.class).repeat(64 * 1024)
+					+ jdbcTemplate.queryForObject("SELECT 'b'", String.class);
+		}
+	}
+}
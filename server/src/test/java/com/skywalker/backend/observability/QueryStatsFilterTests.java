@@ -0,0 +1,84 @@
+package com.skywalker.backend.observability;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+class QueryStatsFilterTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	@Test
+	void recordsStatementsPerHandler() throws Exception {
+		new QueryStatsFilter(registry, true).doFilter(request(), new MockHttpServletResponse(), chain(2));
+
+		assertThat(registry.get("app.db.statements").tag("handler", "Handlers.twoQueries").summary().totalAmount())
+				.isEqualTo(2);
+		assertThat(registry.get("app.db.time").tag("handler", "Handlers.twoQueries").timer().count()).isEqualTo(1);
+	}
+
+	@Test
+	void failsRequestOverBudgetWhenEnforced() {
+		assertThatIllegalStateException()
+				.isThrownBy(() -> new QueryStatsFilter(registry, true)
+						.doFilter(request(), new MockHttpServletResponse(), chain(3)))
+				.withMessageContaining("Handlers.twoQueries ran 3 SQL statements, budget is 2");
+	}
+
+	@Test
+	void onlyLogsOverBudgetOnceResponseIsCommitted() throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		response.setCommitted(true);
+
+		new QueryStatsFilter(registry, true).doFilter(request(), response, chain(3));
+
+		assertThat(registry.get("app.db.statements").summary().totalAmount()).isEqualTo(3);
+	}
+
+	@Test
+	void onlyLogsOverBudgetByDefault() throws Exception {
+		new QueryStatsFilter(registry, false).doFilter(request(), new MockHttpServletResponse(), chain(3));
+
+		assertThat(registry.get("app.db.statements").summary().totalAmount()).isEqualTo(3);
+	}
+
+	@Test
+	void exemptStatementsCountTowardsMetricsButNotBudget() throws Exception {
+		FilterChain chain = chain(2);
+		FilterChain withRepair = (request, response) -> {
+			chain.doFilter(request, response);
+			QueryStats.exemptFromBudget(() -> QueryStats.record(3, 1_000_000));
+		};
+
+		new QueryStatsFilter(registry, true).doFilter(request(), new MockHttpServletResponse(), withRepair);
+
+		assertThat(registry.get("app.db.statements").summary().totalAmount()).isEqualTo(5);
+	}
+
+	private static MockHttpServletRequest request() {
+		return new MockHttpServletRequest("GET", "/api/milestones");
+	}
+
+	// Stands in for the dispatcher: resolves the handler and runs the given number of statements
+	private static FilterChain chain(int statements) throws NoSuchMethodException {
+		HandlerMethod handler = new HandlerMethod(new Handlers(), Handlers.class.getMethod("twoQueries"));
+		return (request, response) -> {
+			request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, handler);
+			QueryStats.record(statements, 1_000_000);
+		};
+	}
+
+	static class Handlers {
+
+		@QueryBudget(2)
+		public void twoQueries() {
+		}
+	}
+}
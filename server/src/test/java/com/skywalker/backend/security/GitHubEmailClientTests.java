@@ -0,0 +1,90 @@
+package com.skywalker.backend.security;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GitHubEmailClientTests {
+
+	private static final String EMAILS = """
+			[{"email":"old@example.com","primary":false,"verified":true},
+			 {"email":"jane@example.com","primary":true,"verified":true}]""";
+
+	private HttpServer server;
+	private final AtomicInteger requests = new AtomicInteger();
+	private volatile int status = 200;
+
+	@BeforeEach
+	void startStub() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/user/emails", exchange -> {
+			requests.incrementAndGet();
+			byte[] body = EMAILS.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(status, body.length);
+			exchange.getResponseBody().write(body);
+			exchange.close();
+		});
+		server.start();
+	}
+
+	@AfterEach
+	void stopStub() {
+		server.stop(0);
+	}
+
+	@Test
+	void returnsPrimaryVerifiedEmailAndCachesItPerAccount() {
+		GitHubEmailClient client = client(5);
+
+		assertThat(client.fetchPrimaryEmail("1001", "token-a")).contains("jane@example.com");
+		assertThat(client.fetchPrimaryEmail("1001", "token-b")).contains("jane@example.com");
+		assertThat(requests).hasValue(1);
+	}
+
+	@Test
+	void stopsCallingGitHubOnceTheCircuitOpens() {
+		status = 502;
+		GitHubEmailClient client = client(2);
+
+		assertThat(client.fetchPrimaryEmail("1001", "token")).isEmpty();
+		assertThat(client.fetchPrimaryEmail("1002", "token")).isEmpty();
+		assertThat(client.fetchPrimaryEmail("1003", "token")).isEmpty();
+		assertThat(requests).hasValue(2);
+	}
+
+	@Test
+	void probeThatThrowsUnexpectedlyDoesNotKeepTheCircuitOpen() {
+		status = 502;
+		GitHubEmailClient client = client(1, Duration.ZERO);
+		assertThat(client.fetchPrimaryEmail("1001", "token")).isEmpty();
+
+		assertThatThrownBy(() -> client.fetchPrimaryEmail("1002", "bad\ntoken"))
+				.isNotInstanceOf(RestClientException.class);
+		status = 200;
+
+		assertThat(client.fetchPrimaryEmail("1003", "token")).contains("jane@example.com");
+		assertThat(requests).hasValue(2);
+	}
+
+	private GitHubEmailClient client(int failureThreshold) {
+		return client(failureThreshold, Duration.ofMinutes(1));
+	}
+
+	private GitHubEmailClient client(int failureThreshold, Duration openDuration) {
+		String url = "http://127.0.0.1:" + server.getAddress().getPort();
+		return new GitHubEmailClient(url, Duration.ofSeconds(1), Duration.ofSeconds(1),
+				failureThreshold, openDuration, Duration.ofMinutes(10));
+	}
+}
@@ -0,0 +1,68 @@
+package com.skywalker.backend.security;
+
+import com.skywalker.backend.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JWTUtilsTests {
+
+	private JWTUtils jwtUtils;
+
+	@BeforeEach
+	void setUp() {
+		jwtUtils = new JWTUtils();
+		ReflectionTestUtils.setField(jwtUtils, "secretString",
+				Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes()));
+		ReflectionTestUtils.setField(jwtUtils, "cacheMaxSize", 100L);
+		jwtUtils.init();
+	}
+
+	@Test
+	void verifiesTokenOnceAndReusesClaims() {
+		String token = jwtUtils.generateToken(user("jane@example.com"));
+
+		Optional<VerifiedToken> first = jwtUtils.verifyToken(token);
+		Optional<VerifiedToken> second = jwtUtils.verifyToken(token);
+
+		assertThat(first).map(VerifiedToken::subject).contains("jane@example.com");
+		assertThat(first).map(VerifiedToken::userId).contains(42L);
+		assertThat(second.get()).isSameAs(first.get());
+	}
+
+	@Test
+	void rejectsTamperedToken() {
+		String token = jwtUtils.generateToken(user("jane@example.com"));
+		// The first signature character carries six full bits; the last one may only carry padding bits
+		int signature = token.lastIndexOf('.') + 1;
+		char replacement = token.charAt(signature) == 'A' ? 'B' : 'A';
+		String tampered = token.substring(0, signature) + replacement + token.substring(signature + 1);
+
+		assertThat(jwtUtils.verifyToken(tampered)).isEmpty();
+	}
+
+	@Test
+	void streamTicketIsScopedAndShortLived() {
+		VerifiedToken ticket = jwtUtils.verifyToken(
+				jwtUtils.generateStreamTicket(new AuthenticatedUser(42L, "jane@example.com"))).orElseThrow();
+		VerifiedToken session = jwtUtils.verifyToken(jwtUtils.generateToken(user("jane@example.com"))).orElseThrow();
+
+		assertThat(ticket.scope()).isEqualTo(JWTUtils.STREAM_SCOPE);
+		assertThat(ticket.userId()).isEqualTo(42L);
+		assertThat(ticket.expiresAt()).isBefore(Instant.now().plusSeconds(61));
+		assertThat(session.scope()).isNull();
+	}
+
+	private static User user(String email) {
+		User user = new User();
+		user.setId(42L);
+		user.setEmail(email);
+		return user;
+	}
+}
@@ -0,0 +1,43 @@
+package com.skywalker.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class CsvRecordReaderTests {
+
+	@Test
+	void readsQuotedFieldsAcrossLines() throws IOException {
+		CsvRecordReader reader = new CsvRecordReader(new StringReader(
+				"title,description\r\n\"a, b\",\"say \"\"hi\"\"\nagain\"\r\nplain,\n"), 1000);
+
+		assertThat(reader.next()).containsExactly("title", "description");
+		assertThat(reader.next()).containsExactly("a, b", "say \"hi\"\nagain");
+		assertThat(reader.getRecordLine()).isEqualTo(2);
+		assertThat(reader.next()).isEqualTo(Arrays.asList("plain", null));
+		assertThat(reader.getRecordLine()).isEqualTo(4);
+		assertThat(reader.next()).isNull();
+	}
+
+	@Test
+	void distinguishesEmptyStringFromMissingValue() throws IOException {
+		CsvRecordReader reader = new CsvRecordReader(new StringReader("\"\",,x"), 1000);
+
+		assertThat(reader.next()).isEqualTo(Arrays.asList("", null, "x"));
+	}
+
+	@Test
+	void rejectsUnterminatedQuoteAndOversizedRecords() {
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> new CsvRecordReader(new StringReader("a,\"open\n"), 1000).next())
+				.withMessageContaining("Unterminated");
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> new CsvRecordReader(new StringReader("x".repeat(20)), 10).next())
+				.withMessageContaining("longer than 10");
+	}
+}
@@ -0,0 +1,35 @@
+package com.skywalker.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MilestoneServiceTests {
+
+	@Test
+	void prefixQueryMatchesEveryTermAsPrefix() {
+		assertThat(MilestoneService.toPrefixQuery("Trip to Par")).isEqualTo("trip:* & to:* & par:*");
+		assertThat(MilestoneService.toPrefixQuery("Čeština 2026")).isEqualTo("čeština:* & 2026:*");
+	}
+
+	@Test
+	void prefixQueryNeverPassesTsqueryOperators() {
+		String query = MilestoneService.toPrefixQuery("a:*&b|!c (d) 'e' f<->g <2> h\\i");
+
+		assertThat(query).isEqualTo("a:* & b:* & c:* & d:* & e:* & f:* & g:* & 2:*");
+		assertThat(query.replace(":*", "").replace(" & ", "")).matches("[\\p{L}\\p{N}]+");
+	}
+
+	@Test
+	void prefixQueryKeepsFirstEightTerms() {
+		assertThat(MilestoneService.toPrefixQuery("1 2 3 4 5 6 7 8 9 10"))
+				.isEqualTo("1:* & 2:* & 3:* & 4:* & 5:* & 6:* & 7:* & 8:*");
+	}
+
+	@Test
+	void prefixQueryIsNullWithoutTerms() {
+		assertThat(MilestoneService.toPrefixQuery(null)).isNull();
+		assertThat(MilestoneService.toPrefixQuery("")).isNull();
+		assertThat(MilestoneService.toPrefixQuery(" :*&|!()<-> ")).isNull();
+	}
+}
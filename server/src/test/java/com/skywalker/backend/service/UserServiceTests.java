@@ -0,0 +1,44 @@
+package com.skywalker.backend.service;
+
+import com.skywalker.backend.dto.LoginRequest;
+import com.skywalker.backend.exception.PasswordHashingRejectedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class UserServiceTests {
+
+	@Test
+	void saturatedHashingIsRethrownEvenWhenWrapped() {
+		UserService service = withAuthenticationFailure(
+				new InternalAuthenticationServiceException("rejected", new PasswordHashingRejectedException()));
+
+		assertThatExceptionOfType(PasswordHashingRejectedException.class)
+				.isThrownBy(() -> service.login(login()));
+	}
+
+	@Test
+	void otherAuthenticationFailuresAreReportedInTheResponse() {
+		UserService service = withAuthenticationFailure(new BadCredentialsException("Bad credentials"));
+
+		assertThat(service.login(login()).getSuccess()).isFalse();
+	}
+
+	private static UserService withAuthenticationFailure(RuntimeException failure) {
+		AuthenticationManager authenticationManager = authentication -> {
+			throw failure;
+		};
+		return new UserService(null, null, null, authenticationManager);
+	}
+
+	private static LoginRequest login() {
+		LoginRequest request = new LoginRequest();
+		request.setEmail("nobody@example.com");
+		request.setPassword("secret");
+		return request;
+	}
+}